@@ -0,0 +1,27 @@
+package io.av360.maverick.graph.api.config;
+
+import io.av360.maverick.graph.store.rdf.ConnectionScope;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Binds a {@link ConnectionScope} to every request, all store operations within the request share one connection per
+ * repository. The connections are released once the request has been completed, has failed or has been cancelled.
+ */
+@Component
+@Slf4j(topic = "graph.config.scope")
+public class ConnectionScopeFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return Mono.usingWhen(
+                Mono.fromSupplier(ConnectionScope::new),
+                scope -> chain.filter(exchange).contextWrite(context -> ConnectionScope.with(context, scope)),
+                scope -> Mono.fromRunnable(scope::close)
+        );
+    }
+}
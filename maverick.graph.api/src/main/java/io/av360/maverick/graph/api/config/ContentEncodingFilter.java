@@ -0,0 +1,70 @@
+package io.av360.maverick.graph.api.config;
+
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses request bodies with the header 'Content-Encoding: gzip', the decoders therefore always receive the plain
+ * content. Other encodings are rejected with 415 (Unsupported Media Type).
+ * <p>
+ * The compression of responses (for requests with the header 'Accept-Encoding') is handled by the server, see the
+ * properties 'server.compression.*'.
+ */
+@Component
+@Slf4j(topic = "graph.config.encoding")
+public class ContentEncodingFilter implements WebFilter {
+    private static final int PREFETCH = 4;
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String encoding = exchange.getRequest().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (!StringUtils.hasText(encoding) || encoding.trim().equalsIgnoreCase("identity")) {
+            return chain.filter(exchange);
+        }
+
+        if (!encoding.trim().toLowerCase(Locale.ROOT).matches("(x-)?gzip")) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported content encoding '" + encoding + "', supported is gzip."));
+        }
+
+        log.trace("Decompressing request body with content encoding '{}'", encoding);
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(exchange.getRequest().getHeaders());
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+
+        ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                // the gzip stream is blocking, it is read on its own thread
+                return DataBufferUtils.readInputStream(() -> new GZIPInputStream(new DataBufferInputStream(super.getBody(), PREFETCH), BUFFER_SIZE),
+                                exchange.getResponse().bufferFactory(), BUFFER_SIZE)
+                        .subscribeOn(Schedulers.boundedElastic());
+            }
+        };
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+}
@@ -86,6 +86,21 @@ public class GlobalExceptionHandler extends DefaultErrorAttributes {
             errorAttributes.replace("error", HttpStatus.BAD_REQUEST.getReasonPhrase());
             errorAttributes.remove("exception");
             errorAttributes.remove("trace");
+        } else if (error instanceof StoreBusy) {
+            errorAttributes.replace("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+            errorAttributes.replace("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+            errorAttributes.remove("exception");
+            errorAttributes.remove("trace");
+        } else if (error instanceof ChangesUnavailable) {
+            errorAttributes.replace("status", HttpStatus.GONE.value());
+            errorAttributes.replace("error", HttpStatus.GONE.getReasonPhrase());
+            errorAttributes.remove("exception");
+            errorAttributes.remove("trace");
+        } else if (error instanceof PayloadTooLarge) {
+            errorAttributes.replace("status", HttpStatus.PAYLOAD_TOO_LARGE.value());
+            errorAttributes.replace("error", HttpStatus.PAYLOAD_TOO_LARGE.getReasonPhrase());
+            errorAttributes.remove("exception");
+            errorAttributes.remove("trace");
         }
 
 
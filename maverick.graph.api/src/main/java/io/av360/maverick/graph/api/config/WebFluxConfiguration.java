@@ -5,15 +5,35 @@ import io.av360.maverick.graph.api.converter.decoder.StatementsDecoder;
 import io.av360.maverick.graph.api.converter.encoder.BindingSetEncoder;
 import io.av360.maverick.graph.api.converter.encoder.BufferedStatementsEncoder;
 import io.av360.maverick.graph.api.converter.encoder.StatementsEncoder;
-import io.av360.maverick.graph.api.converter.encoder.TupleQueryResultsEncoder;
+import io.av360.maverick.graph.store.SchemaStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.accept.RequestedContentTypeResolverBuilder;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
 
+/**
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.api.payload.maxBytes: maximum size of a request body with statements (default: 0, unlimited)</li>
+ *     <li>application.api.payload.maxStatements: maximum number of statements in a request body (default: 0, unlimited)</li>
+ * </ul>
+ */
 @Configuration
 public class WebFluxConfiguration implements WebFluxConfigurer {
 
+    private final long maxPayloadBytes;
+    private final long maxPayloadStatements;
+    private final SchemaStore schemaStore;
+
+    public WebFluxConfiguration(@Value("${application.api.payload.maxBytes:0}") long maxPayloadBytes,
+                                @Value("${application.api.payload.maxStatements:0}") long maxPayloadStatements,
+                                SchemaStore schemaStore) {
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.maxPayloadStatements = maxPayloadStatements;
+        this.schemaStore = schemaStore;
+    }
+
     public void configureContentTypeResolver(RequestedContentTypeResolverBuilder builder) {
         builder.headerResolver();
         builder.parameterResolver().parameterName("format");
@@ -21,11 +41,10 @@ public class WebFluxConfiguration implements WebFluxConfigurer {
 
 
     public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
-        configurer.customCodecs().register(new BufferedStatementsEncoder());
+        configurer.customCodecs().register(new BufferedStatementsEncoder(this.schemaStore.getNamespaces()));
         configurer.customCodecs().register(new StatementsEncoder());
-        configurer.customCodecs().register(new TupleQueryResultsEncoder());
         configurer.customCodecs().register(new BindingSetEncoder());
-        configurer.customCodecs().register(new StatementsDecoder());
+        configurer.customCodecs().register(new StatementsDecoder(this.maxPayloadBytes, this.maxPayloadStatements));
 
     }
 
@@ -1,5 +1,7 @@
 package io.av360.maverick.graph.api.controller;
 
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.security.core.Authentication;
@@ -8,6 +10,9 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 public class AbstractController {
 
 
@@ -24,4 +29,20 @@ public class AbstractController {
         Assert.isTrue(property.length == 2, "Failed to extract prefix and label from path parameter " + prefixedKey);
         return property;
     }
+
+    /**
+     * The continuation token is the (base64 encoded) identifier of the last entity of a page, it should be treated as
+     * opaque by clients.
+     */
+    protected String encodeContinuationToken(IRI identifier) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(identifier.stringValue().getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected IRI decodeContinuationToken(String token) {
+        try {
+            return SimpleValueFactory.getInstance().createIRI(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token " + token);
+        }
+    }
 }
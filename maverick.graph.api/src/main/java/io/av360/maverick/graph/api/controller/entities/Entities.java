@@ -18,11 +18,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.rdf4j.model.IRI;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import javax.annotation.Nullable;
 import java.util.Map;
@@ -35,6 +38,7 @@ import java.util.Map;
 )
 @SecurityRequirement(name = "api_key")
 public class Entities extends AbstractController {
+    private static final String CONTINUATION_HEADER = "X-Continuation-Token";
 
     protected final ObjectMapper objectMapper;
     protected final EntityServices entityServices;
@@ -48,18 +52,25 @@ public class Entities extends AbstractController {
 
     @Operation(summary = "Returns an entity with the given unique identifier. ")
     @ApiResponses(value = {
+            @ApiResponse(responseCode = "304", description = "Entity has not been modified since the version given in the header 'If-None-Match'"),
             @ApiResponse(responseCode = "404", description = "Entity with the given identifier does not exist", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorAttributes.class))})
     })
     @GetMapping(value = "/{id}",
-            produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE})
-    @ResponseStatus(HttpStatus.OK)
-    Flux<NamespaceAwareStatement> read(@PathVariable String id, @RequestParam(required = false) @Nullable String property) {
+            produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE, RdfMimeTypes.BINARY_VALUE})
+    Mono<ResponseEntity<Flux<NamespaceAwareStatement>>> read(@PathVariable String id, @RequestParam(required = false) @Nullable String property) {
         if(StringUtils.isBlank(property)) {
             Assert.isTrue(id.length() == GeneratedIdentifier.LENGTH, "Incorrect length for identifier.");
 
+            // the entity is only loaded if the version is unknown or has changed (the body is not subscribed for 304)
             return super.getAuthentication()
-                    .flatMap(authentication -> entityServices.readEntity(id, authentication))
-                    .flatMapIterable(TripleModel::asStatements)
+                    .flatMap(authentication -> entityServices.getEntityVersion(id, authentication)
+                            .map(version -> ResponseEntity.ok().eTag("W/\"" + version + "\"")
+                                    .body(entityServices.readEntity(id, authentication).flatMapIterable(TripleModel::asStatements)))
+                            .switchIfEmpty(entityServices.readEntity(id, authentication)
+                                    .flatMap(entity -> entityServices.getEntityVersion(id, authentication)
+                                            .map(version -> ResponseEntity.ok().eTag("W/\"" + version + "\""))
+                                            .defaultIfEmpty(ResponseEntity.ok())
+                                            .map(response -> response.body(Flux.fromIterable(entity.asStatements()))))))
                     .doOnSubscribe(s -> {
                         if (log.isDebugEnabled()) log.debug("Request to read entity with id: {}", id);
                     });
@@ -67,8 +78,8 @@ public class Entities extends AbstractController {
             String[] split = splitPrefixedIdentifier(property);
 
             return super.getAuthentication()
-                    .flatMap(authentication -> queryServices.findEntityByProperty(id, split[0], split[1], authentication))
-                    .flatMapIterable(TripleModel::asStatements)
+                    .map(authentication -> ResponseEntity.ok().body(queryServices.findEntityByProperty(id, split[0], split[1], authentication)
+                            .flatMapIterable(TripleModel::asStatements)))
                     .doOnSubscribe(s -> {
                         if (log.isDebugEnabled()) log.debug("Request to read entity with id: {}", id);
                     });
@@ -77,17 +88,39 @@ public class Entities extends AbstractController {
 
     }
 
-    @GetMapping(value = "", produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE})
-    @ResponseStatus(HttpStatus.OK)
-    Flux<NamespaceAwareStatement> list(
+    @Operation(summary = "Lists the entities, either by offset or by continuation token.",
+            description = "Requests with the parameter 'token' (empty for the first page) return the entities in a stable order, " +
+                    "the token for the next page is returned in the header 'X-Continuation-Token' (missing for the last page). " +
+                    "The parameter 'offset' is ignored in this case.")
+    @GetMapping(value = "", produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE, RdfMimeTypes.BINARY_VALUE})
+    Mono<ResponseEntity<Flux<NamespaceAwareStatement>>> list(
             @RequestParam(value = "limit", defaultValue = "5000") Integer limit,
-            @RequestParam(value = "offset", defaultValue = "0") Integer offset) {
+            @RequestParam(value = "offset", defaultValue = "0") Integer offset,
+            @RequestParam(value = "token", required = false) @Nullable String token) {
+
+        if (token == null) {
+            return super.getAuthentication()
+                    .map(authentication -> ResponseEntity.ok().body(queryServices.listEntities(authentication, limit, offset)
+                            .flatMapIterable(TripleModel::asStatements)))
+                    .doOnSubscribe(s -> {
+                        if (log.isDebugEnabled()) log.debug("Request to list entities");
+                    });
+        }
+
+        Assert.isTrue(limit > 0, "Limit must be positive.");
+        IRI after = token.isEmpty() ? null : decodeContinuationToken(token);
 
         return super.getAuthentication()
-                .flatMapMany(authentication -> queryServices.listEntities(authentication, limit, offset))
-                .flatMapIterable(TripleModel::asStatements)
+                .flatMap(authentication -> queryServices.listEntityIdentifiers(authentication, limit, after)
+                        .collectList()
+                        .map(ids -> ResponseEntity.ok()
+                                .headers(headers -> {
+                                    // a full page might be followed by more entities
+                                    if (ids.size() == limit) headers.set(CONTINUATION_HEADER, encodeContinuationToken(ids.get(ids.size() - 1)));
+                                })
+                                .body(queryServices.listEntities(authentication, ids).flatMapIterable(TripleModel::asStatements))))
                 .doOnSubscribe(s -> {
-                    if (log.isDebugEnabled()) log.debug("Request to list entities");
+                    if (log.isDebugEnabled()) log.debug("Request to list entities after continuation token '{}'", token);
                 });
     }
 
@@ -95,8 +128,8 @@ public class Entities extends AbstractController {
 
 
     @PostMapping(value = "",
-            consumes = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE},
-            produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE})
+            consumes = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE, RdfMimeTypes.BINARY_VALUE},
+            produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE, RdfMimeTypes.BINARY_VALUE})
     @ResponseStatus(HttpStatus.ACCEPTED)
     Flux<NamespaceAwareStatement> create(@RequestBody TripleBag request) {
         Assert.isTrue(request.getModel().size() > 0, "No statements in request detected.");
@@ -111,8 +144,8 @@ public class Entities extends AbstractController {
     }
 
     @PostMapping(value = "/{id:[\\w|\\d|-|_]+}/{prefixedKey:[\\w|\\d]+\\.[\\w|\\d]+}",
-            consumes = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE},
-            produces = {RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.JSONLD_VALUE})
+            consumes = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.BINARY_VALUE},
+            produces = {RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.BINARY_VALUE})
     @ResponseStatus(HttpStatus.CREATED)
     Flux<NamespaceAwareStatement> embed(@PathVariable String id, @PathVariable String prefixedKey, @RequestBody TripleBag value) {
 
@@ -128,7 +161,7 @@ public class Entities extends AbstractController {
 
 
     @DeleteMapping(value = "/{id:[\\w|\\d|-|_]+}",
-            produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE})
+            produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE, RdfMimeTypes.BINARY_VALUE})
     @ResponseStatus(HttpStatus.OK)
     Flux<NamespaceAwareStatement> delete(@PathVariable String id) {
         Assert.isTrue(id.length() == GeneratedIdentifier.LENGTH, "Incorrect length for identifier.");
@@ -148,8 +181,8 @@ public class Entities extends AbstractController {
     /* //
     @ApiOperation(value = "Update entity", tags = {"v3", "entity"})
     @PutMapping(value = "",
-                consumes = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE},
-                produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE})
+                consumes = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE, RdfMimeTypes.BINARY_VALUE},
+                produces = {RdfMimeTypes.JSONLD_VALUE, RdfMimeTypes.TURTLE_VALUE, RdfMimeTypes.N3_VALUE, RdfMimeTypes.BINARY_VALUE})
         @ResponseStatus(HttpStatus.ACCEPTED)
         Flux<NamespaceAwareStatement> updateValue(@RequestBody Incoming request) {
             Assert.isTrue(request.getModel().size() > 0, "No statements in request detected.");
@@ -23,7 +23,7 @@ public class Queries extends AbstractController {
         this.queryServices = queryServices;
     }
 
-    @PostMapping(value = "/select", consumes = "text/plain", produces = {"text/csv", "application/sparql-results+json"})
+    @PostMapping(value = "/select", consumes = "text/plain", produces = {"text/csv", "text/tab-separated-values", "application/sparql-results+json"})
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
             description = "Sparql Query",
             content = @Content(examples = {
@@ -1,5 +1,7 @@
 package io.av360.maverick.graph.api.converter.decoder;
 
+import io.av360.maverick.graph.model.errors.PayloadTooLarge;
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferInputStream;
 import io.av360.maverick.graph.store.rdf.helpers.RdfUtils;
 import io.av360.maverick.graph.store.rdf.helpers.TriplesCollector;
 import io.av360.maverick.graph.store.rdf.models.TripleModel;
@@ -15,13 +17,21 @@ import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.util.MimeType;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Parses the request body while it arrives (the parser reads from the stream of data buffers on its own thread), the
+ * payload is therefore never joined in memory. Requests exceeding the configured number of bytes or statements are
+ * rejected with 413 (Payload Too Large) as soon as the limit is reached, both limits are disabled unless configured.
+ */
 @Slf4j(topic = "graph.api.decoder")
 public class StatementsDecoder implements Decoder<TripleBag> {
+    private static final int PREFETCH = 4;
     private static final List<MimeType> mimeTypes;
 
     static {
@@ -31,10 +41,23 @@ public class StatementsDecoder implements Decoder<TripleBag> {
                 MimeType.valueOf(RDFFormat.NTRIPLES.getDefaultMIMEType()),
                 MimeType.valueOf(RDFFormat.N3.getDefaultMIMEType()),
                 MimeType.valueOf(RDFFormat.TURTLE.getDefaultMIMEType()),
-                MimeType.valueOf(RDFFormat.NQUADS.getDefaultMIMEType())
+                MimeType.valueOf(RDFFormat.NQUADS.getDefaultMIMEType()),
+                MimeType.valueOf(RDFFormat.BINARY.getDefaultMIMEType())
         );
     }
 
+    private final long maxBytes;
+    private final long maxStatements;
+
+    /**
+     * @param maxBytes      the maximum size of a request body, unlimited if not positive
+     * @param maxStatements the maximum number of statements in a request body, unlimited if not positive
+     */
+    public StatementsDecoder(long maxBytes, long maxStatements) {
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        this.maxStatements = maxStatements > 0 ? maxStatements : Long.MAX_VALUE;
+    }
+
     @Override
     public List<MimeType> getDecodableMimeTypes() {
         return mimeTypes;
@@ -57,26 +80,38 @@ public class StatementsDecoder implements Decoder<TripleBag> {
 
 
     private Mono<TripleBag> parse(Publisher<DataBuffer> publisher, MimeType mimeType) {
+        AtomicLong bytes = new AtomicLong();
+        Flux<DataBuffer> limited = Flux.from(publisher)
+                .handle((buffer, sink) -> {
+                    if (bytes.addAndGet(buffer.readableByteCount()) > this.maxBytes) {
+                        DataBufferUtils.release(buffer);
+                        sink.error(new PayloadTooLarge(this.maxBytes + " bytes"));
+                    } else {
+                        sink.next(buffer);
+                    }
+                });
 
-        return DataBufferUtils.join(publisher)
-                .flatMap(dataBuffer -> {
-
+        // the parsers are blocking, they read on their own thread
+        return Mono.fromCallable(() -> {
                     log.debug("Trying to parse payload of mimetype '{}'", mimeType.toString());
                     RDFParser parser = RdfUtils.getParserFactory(mimeType).orElseThrow().getParser();
-                    TriplesCollector handler = RdfUtils.getTriplesCollector();
+                    TriplesCollector handler = RdfUtils.getTriplesCollector(this.maxStatements);
 
-                    try (InputStream is = dataBuffer.asInputStream(true)) {
+                    try (InputStream is = new DataBufferInputStream(limited, PREFETCH)) {
                         parser.setRDFHandler(handler);
                         parser.parse(is);
                         log.trace("Parsing of payload with mimetype '{}' completed", mimeType);
-                        return Mono.just(handler.getModel());
+                        return handler.getModel();
                     } catch (Exception e) {
+                        // the parsers might wrap the errors of the stream or handler
+                        if (bytes.get() > this.maxBytes) throw new PayloadTooLarge(this.maxBytes + " bytes");
+                        if (handler.isLimitExceeded()) throw new PayloadTooLarge(this.maxStatements + " statements");
+
                         log.error("Failed to parse request of mimetype '{}'", mimeType, e);
-                        return Mono.error(e);
+                        throw e;
                     }
-                });
-
-
+                })
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
 
@@ -1,27 +1,34 @@
 package io.av360.maverick.graph.api.converter.encoder;
 
+import io.av360.maverick.graph.model.rdf.ProjectedBindingSet;
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.query.BindingSet;
-import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
-import org.eclipse.rdf4j.query.impl.TupleQueryResultBuilder;
+import org.eclipse.rdf4j.query.QueryResultHandlerException;
 import org.eclipse.rdf4j.query.resultio.*;
 import org.reactivestreams.Publisher;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.Encoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
-import org.springframework.core.io.buffer.DefaultDataBuffer;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes the solutions of a select query while they arrive, the header (the binding names) is the projection of the
+ * query, which is passed with the solutions (see {@link ProjectedBindingSet}). Only solutions without a projection fall
+ * back to the binding names of the first solution. The output is emitted in chunks (see {@link DataBufferOutputStream}), the result is therefore never held completely
+ * in memory.
+ */
 @Slf4j(topic = "graph.api.encoder")
 public class BindingSetEncoder implements Encoder<BindingSet> {
     private static final List<MimeType> mimeTypes;
@@ -29,7 +36,8 @@ public class BindingSetEncoder implements Encoder<BindingSet> {
     static {
         mimeTypes = List.of(
                 MimeType.valueOf(TupleQueryResultFormat.JSON.getDefaultMIMEType()),
-                MimeType.valueOf(TupleQueryResultFormat.CSV.getDefaultMIMEType())
+                MimeType.valueOf(TupleQueryResultFormat.CSV.getDefaultMIMEType()),
+                MimeType.valueOf(TupleQueryResultFormat.TSV.getDefaultMIMEType())
         );
     }
 
@@ -49,49 +57,37 @@ public class BindingSetEncoder implements Encoder<BindingSet> {
 
     @Override
     public Flux<DataBuffer> encode(Publisher<? extends BindingSet> publisher, DataBufferFactory bufferFactory, ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
-
-
         Assert.notNull(mimeType, "No mimetype is set");
         Assert.isAssignable(BindingSet.class, elementType.toClass(), "Invalid object definition");
 
-
-        // this cannot be outside of flux
-
-
-        QueryResultFormat format = QueryResultIO.getParserFormatForMIMEType(mimeType.toString()).orElseThrow();
-        TupleQueryResultWriterFactory tupleQueryResultWriterFactory = TupleQueryResultWriterRegistry.getInstance().get(format).orElseThrow();
-        DefaultDataBuffer dataBuffer = new DefaultDataBufferFactory().allocateBuffer();
-        /*
-            FIXME: we don't really stream the flux, we have to rebuild the tuplequeryresultwriter
-
-         */
-
-        return Flux.from(publisher)
-                .collectList()
-                .flatMapMany(bindingSetList -> {
-                    try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-                        if (!bindingSetList.isEmpty()) {
-                            TupleQueryResultBuilder b = new TupleQueryResultBuilder();
-                            b.startQueryResult(bindingSetList.get(0).getBindingNames().stream().toList());
-                            bindingSetList.forEach(b::handleSolution);
-                            b.endQueryResult();
-                            QueryResultIO.writeTuple(b.getQueryResult(), format, baos);
-                        }
-
-                        return Flux.just(bufferFactory.wrap(baos.toByteArray()));
-
-
-                    } catch (TupleQueryResultHandlerException | UnsupportedQueryResultFormatException e) {
-                        log.warn("Failed to write query response of mimetype '{}'", mimeType, e);
-                        return Flux.error(new ResponseStatusException(HttpStatus.CONFLICT, "Failed to handle query results"));
-                    } catch (Exception e) {
-                        log.error("Failed to write query response of mimetype '{}'", mimeType, e);
-                        return Flux.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write response"));
-                    }
+        QueryResultFormat format = QueryResultIO.getWriterFormatForMIMEType(mimeType.toString()).orElseThrow();
+        TupleQueryResultWriterFactory writerFactory = TupleQueryResultWriterRegistry.getInstance().get(format).orElseThrow();
+
+        return Flux.using(() -> new DataBufferOutputStream(bufferFactory), output -> {
+                    TupleQueryResultWriter writer = writerFactory.getWriter(output);
+                    AtomicBoolean started = new AtomicBoolean(false);
+
+                    return Flux.from(publisher)
+                            .concatMap(bindingSet -> {
+                                if (started.compareAndSet(false, true)) {
+                                    writer.startQueryResult(bindingSet instanceof ProjectedBindingSet projected ? projected.getProjection() : List.copyOf(bindingSet.getBindingNames()));
+                                }
+                                writer.handleSolution(bindingSet);
+                                return output.isFull() ? Mono.just(output.drain()) : Mono.empty();
+                            })
+                            // empty, if nothing remains to be written
+                            .concatWith(Mono.fromCallable(() -> {
+                                if (started.compareAndSet(false, true)) writer.startQueryResult(List.of());
+                                writer.endQueryResult();
+                                return output.drain();
+                            }));
+                }, DataBufferOutputStream::release)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .doOnSubscribe(subscription -> log.debug("Writing query results response with mimetype '{}'", mimeType))
+                .onErrorMap(QueryResultHandlerException.class, e -> {
+                    log.warn("Failed to write query response of mimetype '{}'", mimeType, e);
+                    return new ResponseStatusException(HttpStatus.CONFLICT, "Failed to handle query results");
                 });
-
-
     }
 
 }
@@ -1,46 +1,70 @@
 package io.av360.maverick.graph.api.converter.encoder;
 
 import io.av360.maverick.graph.model.vocabulary.Local;
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferOutputStream;
 import io.av360.maverick.graph.store.rdf.helpers.RdfUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.NamespaceAware;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.RDFWriterFactory;
+import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
 import org.reactivestreams.Publisher;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.Encoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.util.MimeType;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * The buffered statements encoder is required by formats with a header (JSON-LD, Turtle) and a concise syntax. Here,
- * we need to collect all statements to print a completed document. For n-quads or similar formats, we simply dump the statements.
+ * The buffered statements encoder is required by formats with a header (JSON-LD, Turtle, BinaryRDF) and a concise syntax. Here,
+ * we need one writer for the complete document. For n-quads or similar formats, we simply dump the statements.
+ * <p>
+ * Turtle and BinaryRDF are streamed: the prefixes of the known namespaces are written first (namespaces of the
+ * statements which are not known yet are written before the statement), the statements are written while they arrive
+ * and the output is emitted in chunks (see {@link DataBufferOutputStream}). The Turtle writer groups the statements by subject
+ * in a buffer of up to 1000 statements (blank nodes are therefore not inlined, which would require to buffer the complete
+ * document). Only JSON-LD (which is compacted) requires to collect all statements first, it is still written directly
+ * into a buffer of the factory.
  */
 @Slf4j(topic = "graph.api.encoder")
 public class BufferedStatementsEncoder implements Encoder<Statement> {
     private static final List<MimeType> mimeTypes;
+    private static final Set<RDFFormat> streamedFormats = Set.of(RDFFormat.TURTLE, RDFFormat.TURTLESTAR, RDFFormat.BINARY);
+
+    private final Set<Namespace> namespaces;
 
     static {
         mimeTypes = List.of(
                 MimeType.valueOf(RDFFormat.TURTLE.getDefaultMIMEType()),
                 MimeType.valueOf(RDFFormat.JSONLD.getDefaultMIMEType()),
-                MimeType.valueOf(RDFFormat.TURTLESTAR.getDefaultMIMEType())
+                MimeType.valueOf(RDFFormat.TURTLESTAR.getDefaultMIMEType()),
+                MimeType.valueOf(RDFFormat.BINARY.getDefaultMIMEType())
         );
     }
 
 
+    /**
+     * @param namespaces the namespaces known to the repositories, which are declared in all streamed documents
+     */
+    public BufferedStatementsEncoder(Set<Namespace> namespaces) {
+        this.namespaces = namespaces;
+    }
+
     @Override
     public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
         return mimeType != null && Statement.class.isAssignableFrom(elementType.toClass()) && mimeType.isPresentIn(mimeTypes);
@@ -48,45 +72,104 @@ public class BufferedStatementsEncoder implements Encoder<Statement> {
 
     @Override
     public Flux<DataBuffer> encode(Publisher<? extends Statement> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        RDFWriterFactory writerFactory = RdfUtils.getWriterFactory(mimeType).orElseThrow();
+        if (streamedFormats.contains(writerFactory.getRDFFormat())) {
+            return this.stream(inputStream, writerFactory, bufferFactory, mimeType);
+        }
+
+        return Flux.using(() -> new DataBufferOutputStream(bufferFactory), output -> Flux.from(inputStream)
+                        .map(statement -> (Statement) statement)
+                        // we filter out any internal statements
+                        .filter(statement -> !statement.getObject().equals(Local.Entities.TYPE))
+                        .collectList()
+                        .mapNotNull(statements -> {
+                            RDFWriter writer = writerFactory.getWriter(output);
+
+                            boolean namespaceHandled = false;
 
-        return Flux.from(inputStream)
+                            writer.startRDF();
+                            for (Statement st : statements) {
+                                /* write namespaces taken from first statement in collection */
+                                namespaceHandled = this.registerNamespaces(writer, st, namespaceHandled);
+                                writer.handleStatement(st);
+                            }
+                            writer.endRDF();
+
+                            return output.drain();
+                        }), DataBufferOutputStream::release)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
                 .doOnSubscribe(c -> {
                     if (log.isTraceEnabled()) {
                         log.trace("Setting up buffered statements stream for response with mimetype '{}'", mimeType != null ? mimeType.toString() : "unset");
                     }
                 })
-                .map(statement -> (Statement) statement)
-                // we filter out any internal statements
-                .filter(statement -> !statement.getObject().equals(Local.Entities.TYPE))
-                .collectList()
-                .flatMapMany(statements -> {
-                    try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-
-                        RDFWriter writer = RdfUtils.getWriterFactory(mimeType).orElseThrow().getWriter(baos);
-
-                        boolean namespaceHandled = false;
-
-                        writer.startRDF();
-                        for (Statement st : statements) {
-                            /* write namespaces taken from first statement in collection */
-                            namespaceHandled = this.registerNamespaces(writer, st, namespaceHandled);
-                            writer.handleStatement(st);
-                        }
-                        writer.endRDF();
-
-                        return Flux.just(bufferFactory.wrap(baos.toByteArray()));
-                    } catch (IOException e) {
-                        log.error("Failed to write response of mimetype '{}'", mimeType.toString(), e);
-                        return Flux.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write response"));
-                    } finally {
-                        if (log.isTraceEnabled()) {
-                            log.trace("Completed writing buffered statements response with mimetype '{}'", mimeType != null ? mimeType.toString() : "unset");
-                        }
+                .doOnComplete(() -> {
+                    if (log.isTraceEnabled()) {
+                        log.trace("Completed writing buffered statements response with mimetype '{}'", mimeType != null ? mimeType.toString() : "unset");
                     }
+                })
+                .onErrorMap(RDFHandlerException.class, e -> {
+                    log.error("Failed to write response of mimetype '{}'", mimeType, e);
+                    return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write response");
                 });
     }
 
+    /**
+     * Writes the statements while they arrive, a chunk is emitted once the writer has written enough bytes (the writer
+     * might buffer statements itself, e.g. to group them by subject).
+     */
+    private Flux<DataBuffer> stream(Publisher<? extends Statement> inputStream, RDFWriterFactory writerFactory, DataBufferFactory bufferFactory, MimeType mimeType) {
+        return Flux.using(() -> new DataBufferOutputStream(bufferFactory), output -> {
+                    RDFWriter writer = writerFactory.getWriter(output);
+                    // pretty printing groups the statements in a bounded buffer, inlining blank nodes would buffer everything
+                    writer.getWriterConfig()
+                            .set(BasicWriterSettings.PRETTY_PRINT, true)
+                            .set(BasicWriterSettings.INLINE_BLANK_NODES, false);
+
+                    Map<String, String> prefixes = new HashMap<>();
+                    AtomicReference<Set<Namespace>> handledNamespaces = new AtomicReference<>();
+
+                    writer.startRDF();
+                    this.namespaces.forEach(namespace -> this.registerNamespace(writer, prefixes, namespace));
+                    return Flux.from(inputStream)
+                            .map(statement -> (Statement) statement)
+                            // we filter out any internal statements
+                            .filter(statement -> !statement.getObject().equals(Local.Entities.TYPE))
+                            .concatMap(statement -> {
+                                /* the statements of a result share their namespaces, they are checked only once */
+                                if (statement instanceof NamespaceAware namespaceAware && handledNamespaces.getAndSet(namespaceAware.getNamespaces()) != namespaceAware.getNamespaces()) {
+                                    namespaceAware.getNamespaces().forEach(namespace -> this.registerNamespace(writer, prefixes, namespace));
+                                }
+                                writer.handleStatement(statement);
+                                return output.isFull() ? Mono.just(output.drain()) : Mono.empty();
+                            })
+                            // empty, if nothing remains to be written
+                            .concatWith(Mono.fromCallable(() -> {
+                                writer.endRDF();
+                                return output.drain();
+                            }));
+                }, DataBufferOutputStream::release)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .doOnSubscribe(c -> {
+                    if (log.isTraceEnabled()) {
+                        log.trace("Setting up streamed statements for response with mimetype '{}'", mimeType != null ? mimeType.toString() : "unset");
+                    }
+                })
+                .onErrorMap(RDFHandlerException.class, e -> {
+                    log.error("Failed to write response of mimetype '{}'", mimeType, e);
+                    return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write response");
+                });
+    }
+
+    /**
+     * Writes the prefix, unless it has been declared before (prefixes are never redefined within a document)
+     */
+    private void registerNamespace(RDFWriter writer, Map<String, String> prefixes, Namespace namespace) {
+        if (prefixes.putIfAbsent(namespace.getPrefix(), namespace.getName()) == null) {
+            writer.handleNamespace(namespace.getPrefix(), namespace.getName());
+        }
+    }
+
     private boolean registerNamespaces(RDFWriter writer, Statement statement, boolean namespaceHandled) {
         if (NamespaceAware.class.isAssignableFrom(statement.getClass())) {
             Set<Namespace> namespaces = ((NamespaceAware) statement).getNamespaces();
@@ -1,30 +1,34 @@
 package io.av360.maverick.graph.api.converter.encoder;
 
 import io.av360.maverick.graph.model.rdf.NamespaceAwareStatement;
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferOutputStream;
 import io.av360.maverick.graph.store.rdf.helpers.RdfUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFWriter;
-import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.RDFWriterFactory;
 import org.reactivestreams.Publisher;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.Encoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.util.MimeType;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 /**
- * The buffered statements encoder is required by formats with a header (JSON-LD, Turtle) and a concise syntax. Here,
- * we need to collect all statements to print a completed document. For n-quads or similar formats, we simply dump the statements.
+ * The statements encoder is used for formats without a header (n-quads, n-triples and similar formats), where we simply
+ * dump the statements while they arrive. See the {@link BufferedStatementsEncoder} for formats with a header.
+ * <p>
+ * One writer is used for the complete response, it writes into buffers of the given factory (see {@link DataBufferOutputStream}).
  */
 @Slf4j(topic = "graph.api.encoder")
 public class StatementsEncoder implements Encoder<NamespaceAwareStatement> {
@@ -48,25 +52,29 @@ public class StatementsEncoder implements Encoder<NamespaceAwareStatement> {
 
     @Override
     public Flux<DataBuffer> encode(Publisher<? extends NamespaceAwareStatement> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        RDFWriterFactory writerFactory = RdfUtils.getWriterFactory(mimeType).orElseThrow();
 
+        return Flux.using(() -> new DataBufferOutputStream(bufferFactory), output -> {
+                    RDFWriter writer = writerFactory.getWriter(output);
+                    writer.startRDF();
 
-        return Flux
-                .from(inputStream)
+                    return Flux.from(inputStream)
+                            .concatMap(statement -> {
+                                writer.handleStatement(statement);
+                                return output.isFull() ? Mono.just(output.drain()) : Mono.empty();
+                            })
+                            // empty, if nothing remains to be written
+                            .concatWith(Mono.fromCallable(() -> {
+                                writer.endRDF();
+                                return output.drain();
+                            }));
+                }, DataBufferOutputStream::release)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
                 .doOnSubscribe(c -> log.debug("Trying to write statements stream response with mimetype '{}'", mimeType != null ? mimeType.toString() : "unset"))
-                .map(namespaceAwareStatement -> (Statement) namespaceAwareStatement)
-                .buffer(5)
-                .flatMap(statements -> {
-                    try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                        RDFWriter writer = RdfUtils.getWriterFactory(mimeType).orElseThrow().getWriter(baos);
-                        Rio.write(statements, writer);
-                        return Flux.just(bufferFactory.wrap(baos.toByteArray()));
-                    } catch (IOException e) {
-                        log.error("Failed to write response of mimetype '{}'", mimeType.toString(), e);
-                        return Flux.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write response"));
-                    } finally {
-                        log.trace("Completed writing statements stream response with mimetype '{}'", mimeType != null ? mimeType.toString() : "unset");
-                    }
-
+                .doOnComplete(() -> log.trace("Completed writing statements stream response with mimetype '{}'", mimeType != null ? mimeType.toString() : "unset"))
+                .onErrorMap(RDFHandlerException.class, e -> {
+                    log.error("Failed to write response of mimetype '{}'", mimeType, e);
+                    return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write response");
                 });
     }
 
@@ -75,4 +83,3 @@ public class StatementsEncoder implements Encoder<NamespaceAwareStatement> {
         return mimeTypes;
     }
 }
-
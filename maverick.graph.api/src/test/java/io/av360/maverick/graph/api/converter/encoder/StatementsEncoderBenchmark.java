@@ -0,0 +1,102 @@
+package io.av360.maverick.graph.api.converter.encoder;
+
+import io.av360.maverick.graph.model.rdf.NamespaceAwareStatement;
+import io.av360.maverick.graph.store.rdf.helpers.RdfUtils;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput (statements per second) of the statements encoder with the previous implementation, which
+ * created a new writer for every five statements.
+ * <p>
+ * Run with the main method (from the test classpath), e.g. in the IDE.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(StatementsEncoderBenchmark.STATEMENTS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementsEncoderBenchmark {
+    static final int STATEMENTS = 100000;
+
+    private static final MimeType NQUADS = MimeType.valueOf(RDFFormat.NQUADS.getDefaultMIMEType());
+    private static final ResolvableType ELEMENT_TYPE = ResolvableType.forClass(NamespaceAwareStatement.class);
+
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final StatementsEncoder encoder = new StatementsEncoder();
+    private List<NamespaceAwareStatement> statements;
+
+    @Setup
+    public void createStatements() {
+        ValueFactory vf = SimpleValueFactory.getInstance();
+        this.statements = new ArrayList<>(STATEMENTS);
+        for (int i = 0; i < STATEMENTS / 2; i++) {
+            var subject = vf.createIRI("http://example.org/entities/" + i);
+            this.statements.add(NamespaceAwareStatement.wrap(vf.createStatement(subject, RDF.TYPE, RDFS.RESOURCE), Set.of()));
+            this.statements.add(NamespaceAwareStatement.wrap(vf.createStatement(subject, RDFS.LABEL, vf.createLiteral("Entity " + i, "en")), Set.of()));
+        }
+    }
+
+    @Benchmark
+    public long singleWriter() {
+        return this.consume(this.encoder.encode(Flux.fromIterable(this.statements), this.bufferFactory, ELEMENT_TYPE, NQUADS, Map.of()));
+    }
+
+    @Benchmark
+    public long writerPerFiveStatements() {
+        return this.consume(Flux.fromIterable(this.statements)
+                .map(statement -> (Statement) statement)
+                .buffer(5)
+                .flatMap(statements -> {
+                    try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+                        RDFWriter writer = RdfUtils.getWriterFactory(NQUADS).orElseThrow().getWriter(baos);
+                        Rio.write(statements, writer);
+                        return Flux.just(this.bufferFactory.wrap(baos.toByteArray()));
+                    } catch (IOException e) {
+                        return Flux.error(e);
+                    }
+                }));
+    }
+
+    private long consume(Flux<DataBuffer> buffers) {
+        return buffers
+                .map(buffer -> {
+                    int count = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) count;
+                })
+                .reduce(0L, Long::sum)
+                .blockOptional().orElse(0L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StatementsEncoderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
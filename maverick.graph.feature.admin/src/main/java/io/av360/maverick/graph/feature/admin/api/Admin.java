@@ -2,15 +2,28 @@ package io.av360.maverick.graph.feature.admin.api;
 
 import io.av360.maverick.graph.api.controller.AbstractController;
 import io.av360.maverick.graph.feature.admin.domain.AdminServices;
+import io.av360.maverick.graph.feature.admin.domain.JobsService;
+import io.av360.maverick.graph.feature.admin.domain.model.JobStatus;
+import io.av360.maverick.graph.model.errors.ChangesUnavailable;
 import io.av360.maverick.graph.store.RepositoryType;
 import io.av360.maverick.graph.store.rdf.helpers.RdfUtils;
+import io.av360.maverick.graph.store.rdf.models.ImportProgress;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParserFactory;
+import org.eclipse.rdf4j.rio.Rio;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
 import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
 import org.springframework.util.StringUtils;
@@ -18,8 +31,11 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping(path = "/api/admin/bulk")
@@ -27,16 +43,24 @@ import java.util.Optional;
 @Slf4j(topic = "graph.feature.admin.api")
 @SecurityRequirement(name = "api_key")
 public class Admin extends AbstractController {
+    private static final int READ_BUFFER_SIZE = 65536;
+    private static final Set<RDFFormat> EXPORT_FORMATS = Set.of(RDFFormat.NTRIPLES, RDFFormat.NQUADS, RDFFormat.BINARY);
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    private static final MediaType RDF_PATCH = MediaType.parseMediaType("application/rdf-patch");
+    private static final String SEQUENCE_HEADER = "X-Sequence";
+
     protected final AdminServices adminServices;
+    protected final JobsService jobsService;
 
-    public Admin(AdminServices adminServices) {
+    public Admin(AdminServices adminServices, JobsService jobsService) {
         this.adminServices = adminServices;
+        this.jobsService = jobsService;
     }
 
     //@ApiOperation(value = "Empty repository", tags = {})
-    @GetMapping(value = "/reset", produces = MediaType.TEXT_PLAIN_VALUE)
+    @GetMapping(value = "/reset", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.ACCEPTED)
-    Mono<Void> queryBindings(@RequestParam(name = "name") String repositoryTypeName) {
+    Mono<JobStatus> queryBindings(@RequestParam(name = "name") String repositoryTypeName) {
         RepositoryType repositoryType;
         if (!StringUtils.hasLength(repositoryTypeName))
             repositoryType = RepositoryType.ENTITIES;
@@ -45,44 +69,136 @@ public class Admin extends AbstractController {
 
         Assert.notNull(repositoryType, "Invalid value for repository type: " + repositoryTypeName);
 
+        // the repository is swapped with an empty one, the job is therefore awaited (and not queued behind running imports)
         return super.getAuthentication()
-                .flatMap(auth -> adminServices.reset(auth, repositoryType))
+                .flatMap(auth -> adminServices.getApplicationLabel(auth)
+                        .map(application -> jobsService.start(application, "reset", "Reset repository " + repositoryType, () -> adminServices.reset(auth, repositoryType))))
+                .flatMap(jobsService::await)
                 .doOnError(throwable -> log.error("Error while purging repository.", throwable))
                 .doOnSubscribe(s -> log.debug("Request to empty the repository of type '{}'", repositoryType));
     }
 
 
     //@ApiOperation(value = "Import RDF into entity repository", tags = {})
-    @PostMapping(value = "/import/entities", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PostMapping(value = "/import/entities", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.ACCEPTED)
-    Mono<Void> importEntities(
+    Mono<JobStatus> importEntities(
             @RequestBody Flux<DataBuffer> bytes,
             // @ApiParam(example = "text/turtle")
-            @RequestParam String mimetype) {
-        Assert.isTrue(StringUtils.hasLength(mimetype), "Mimetype is a required parameter");
+            @RequestParam String mimetype,
+            @RequestParam(required = false, defaultValue = "0") long offset,
+            // parses N-Triples or N-Quads in parallel
+            @RequestParam(required = false, defaultValue = "false") boolean bulk,
+            // commits a bulk load without isolation, for the initial load of a repository
+            @RequestParam(required = false, defaultValue = "false") boolean initial) {
+        this.assertSupported(mimetype, bulk);
 
         return super.getAuthentication()
-                .flatMap(authentication -> adminServices.importEntities(bytes, mimetype, authentication))
+                .flatMap(authentication -> this.submitImport(bytes, mimetype, offset, bulk, initial, authentication))
                 .doOnError(throwable -> log.error("Error while importing to repository.", throwable))
                 .doOnSubscribe(s -> log.debug("Request to import a request of mimetype {}", mimetype));
     }
 
     //@ApiOperation(value = "Import RDF file into entity repository", tags = {})
-    @PostMapping(value = "/import/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PostMapping(value = "/import/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.ACCEPTED)
-    Mono<Void> importFile(
+    Mono<JobStatus> importFile(
             @RequestPart Mono<FilePart> fileMono,
             //@ApiParam(example = "text/turtle")
-            @RequestParam String mimetype) {
+            @RequestParam String mimetype,
+            @RequestParam(required = false, defaultValue = "0") long offset) {
+        this.assertSupported(mimetype, false);
+
+        return Mono.zip(super.getAuthentication(), fileMono)
+                .flatMap(objects -> this.submitImport(objects.getT2().content(), mimetype, offset, false, false, objects.getT1()))
+                .doOnError(throwable -> log.error("Error while importing to repository.", throwable))
+                .doOnSubscribe(s -> log.debug("Request to import a file of mimetype {}", mimetype));
+    }
+
+    //@ApiOperation(value = "Export all statements of the entity repository", tags = {})
+    @GetMapping(value = "/export")
+    @ResponseStatus(HttpStatus.OK)
+    Mono<ResponseEntity<Flux<DataBuffer>>> exportEntities(
+            // @ApiParam(example = "application/n-triples")
+            @RequestParam(required = false, defaultValue = "application/n-triples") String mimetype,
+            @RequestParam(required = false, defaultValue = "false") boolean gzip,
+            ServerHttpResponse response) {
+        Optional<RDFFormat> format = Rio.getWriterFormatForMIMEType(mimetype);
+        Assert.isTrue(format.isPresent() && EXPORT_FORMATS.contains(format.get()), "Unsupported mimetype for exporting statements, supported formats are N-Triples, N-Quads and BinaryRDF");
+
+        String filename = "export." + format.get().getDefaultFileExtension() + (gzip ? ".gz" : "");
+        return super.getAuthentication()
+                // the sequence of the change journal (if enabled), to continue with the export of the changes
+                .flatMap(authentication -> adminServices.getChangeSequence(authentication)
+                        .map(Optional::of)
+                        .onErrorResume(ChangesUnavailable.class, e -> Mono.just(Optional.empty()))
+                        .map(sequence -> ResponseEntity.ok()
+                                .headers(headers -> sequence.ifPresent(value -> headers.set(SEQUENCE_HEADER, String.valueOf(value))))
+                                .contentType(gzip ? GZIP : MediaType.parseMediaType(format.get().getDefaultMIMEType()))
+                                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                                .body(adminServices.exportEntities(format.get(), gzip, response.bufferFactory(), authentication)
+                                        .doOnError(throwable -> log.error("Error while exporting from repository.", throwable)))))
+                .doOnSubscribe(s -> log.debug("Request to export statements as {}", mimetype));
+    }
+
+    /**
+     * Exports the changes of the transactions which have been committed after the given sequence (the sequence returned
+     * in the header 'X-Sequence' of the previous export, including the full export), as RDF Patch. Responds with 410 (Gone) if the changes are not
+     * available anymore, a full export is required in this case.
+     */
+    //@ApiOperation(value = "Export the changes since a previous export", tags = {})
+    @GetMapping(value = "/export/changes")
+    @ResponseStatus(HttpStatus.OK)
+    Mono<ResponseEntity<Flux<DataBuffer>>> exportChanges(
+            @RequestParam(required = false, defaultValue = "0") long since,
+            @RequestParam(required = false, defaultValue = "false") boolean gzip,
+            ServerHttpResponse response) {
+        Assert.isTrue(since >= 0, "The sequence must not be negative");
+
+        return super.getAuthentication()
+                // the current sequence is the end of this export, and the start of the next one
+                .flatMap(authentication -> adminServices.getChangeSequence(authentication)
+                        .map(until -> ResponseEntity.ok()
+                                .contentType(gzip ? GZIP : RDF_PATCH)
+                                .header(SEQUENCE_HEADER, String.valueOf(until))
+                                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("changes-" + since + "-" + until + ".rdfp" + (gzip ? ".gz" : "")).build().toString())
+                                .body(adminServices.exportChanges(since, Math.max(since, until), gzip, response.bufferFactory(), authentication)
+                                        .doOnError(throwable -> log.error("Error while exporting changes from repository.", throwable)))))
+                .doOnSubscribe(s -> log.debug("Request to export changes after sequence {}", since));
+    }
+
+    /**
+     * The upload is written to a file first, the import job is therefore independent of the request. The file is deleted
+     * once the import has stopped reading it, or by the cleanup of the job if the import has never started.
+     */
+    private Mono<JobStatus> submitImport(Flux<DataBuffer> bytes, String mimetype, long offset, boolean bulk, boolean initial, Authentication authentication) {
+        return adminServices.getApplicationLabel(authentication).zipWith(jobsService.spool(bytes)).map(labelAndFile -> {
+            String application = labelAndFile.getT1();
+            Path file = labelAndFile.getT2();
+            ImportProgress progress = new ImportProgress(offset);
+            AtomicBoolean read = new AtomicBoolean();
+            Flux<DataBuffer> content = Flux.defer(() -> read.getAndSet(true)
+                    ? Flux.error(new IllegalStateException("The upload has already been read"))
+                    : DataBufferUtils.read(file, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE).doFinally(signal -> JobsService.delete(file)));
+
+            return jobsService.submit(application, bulk ? "bulk-import" : "import", "Import of " + mimetype + (offset > 0 ? " from offset " + offset : ""), progress,
+                    () -> bulk
+                            ? adminServices.bulkImportEntities(content, mimetype, progress, initial, authentication)
+                            : adminServices.importEntities(content, mimetype, progress, authentication),
+                    () -> {
+                        if (!read.getAndSet(true)) JobsService.delete(file);
+                    }).getStatus();
+        });
+    }
+
+    private void assertSupported(String mimetype, boolean bulk) {
         Assert.isTrue(StringUtils.hasLength(mimetype), "Mimetype is a required parameter");
 
         Optional<RDFParserFactory> parserFactory = RdfUtils.getParserFactory(MimeType.valueOf(mimetype));
         Assert.isTrue(parserFactory.isPresent(), "Unsupported mimetype for parsing the file. Supported mimetypes are: " + RdfUtils.getSupportedMimeTypes());
 
-        return Mono.zip(super.getAuthentication(), fileMono)
-                .flatMap(objects -> adminServices.importEntities(objects.getT2().content(), mimetype, objects.getT1()))
-                .doOnError(throwable -> log.error("Error while importing to repository.", throwable))
-                .doOnSubscribe(s -> log.debug("Request to import a file of mimetype {}", mimetype));
+        RDFFormat format = parserFactory.get().getRDFFormat();
+        Assert.isTrue(!bulk || format.equals(RDFFormat.NTRIPLES) || format.equals(RDFFormat.NQUADS), "Bulk loading is only supported for N-Triples and N-Quads");
     }
 
 
@@ -0,0 +1,81 @@
+package io.av360.maverick.graph.feature.admin.api;
+
+import io.av360.maverick.graph.api.controller.AbstractController;
+import io.av360.maverick.graph.feature.admin.domain.AdminServices;
+import io.av360.maverick.graph.feature.admin.domain.JobsService;
+import io.av360.maverick.graph.feature.admin.domain.model.JobStatus;
+import io.av360.maverick.graph.model.security.Authorities;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping(path = "/api/admin/jobs")
+//@Api(tags = "Admin Operations")
+@Slf4j(topic = "graph.feature.admin.api")
+@SecurityRequirement(name = "api_key")
+public class Jobs extends AbstractController {
+    protected final JobsService jobsService;
+    protected final AdminServices adminServices;
+
+    public Jobs(JobsService jobsService, AdminServices adminServices) {
+        this.jobsService = jobsService;
+        this.adminServices = adminServices;
+    }
+
+    //@ApiOperation(value = "List all jobs", tags = {})
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    Flux<JobStatus> listJobs() {
+        return super.getAuthentication()
+                .doOnNext(this::assertAuthorized)
+                .flatMap(adminServices::getApplicationLabel)
+                .flatMapMany(application -> Flux.fromIterable(jobsService.list(application)))
+                .doOnSubscribe(s -> log.debug("Request to list all jobs"));
+    }
+
+    //@ApiOperation(value = "Get status of job", tags = {})
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    Mono<JobStatus> getJob(@PathVariable String id) {
+        return super.getAuthentication()
+                .doOnNext(this::assertAuthorized)
+                .flatMap(adminServices::getApplicationLabel)
+                .flatMap(application -> found(id, jobsService.get(id, application)))
+                .doOnSubscribe(s -> log.trace("Request to get status of job '{}'", id));
+    }
+
+    //@ApiOperation(value = "Cancel job", tags = {})
+    @DeleteMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    Mono<JobStatus> cancelJob(@PathVariable String id) {
+        return super.getAuthentication()
+                .doOnNext(this::assertAuthorized)
+                .flatMap(adminServices::getApplicationLabel)
+                .flatMap(application -> found(id, jobsService.cancel(id, application)))
+                .doOnSubscribe(s -> log.debug("Request to cancel job '{}'", id));
+    }
+
+    /**
+     * Jobs of other applications are reported as unknown.
+     */
+    private Mono<JobStatus> found(String id, Optional<JobStatus> status) {
+        return Mono.justOrEmpty(status)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job: " + id)));
+    }
+
+    private void assertAuthorized(Authentication authentication) {
+        if (!Authorities.satisfies(Authorities.APPLICATION, authentication.getAuthorities())) {
+            throw new InsufficientAuthenticationException(String.format("Missing authority '%s' for managing jobs", Authorities.APPLICATION.getAuthority()));
+        }
+    }
+}
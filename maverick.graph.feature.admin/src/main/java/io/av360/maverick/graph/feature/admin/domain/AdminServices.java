@@ -3,11 +3,15 @@ package io.av360.maverick.graph.feature.admin.domain;
 import io.av360.maverick.graph.model.security.Authorities;
 import io.av360.maverick.graph.store.EntityStore;
 import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.store.rdf.models.ImportProgress;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.rio.RDFFormat;
 import org.reactivestreams.Publisher;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 
@@ -22,13 +26,45 @@ public class AdminServices {
     }
 
 
+    /**
+     * @return the label of the application of the authentication (the label of its entity repository), which scopes
+     * the jobs of the application
+     */
+    public Mono<String> getApplicationLabel(Authentication authentication) {
+        return Mono.fromCallable(() -> this.graph.getRepository(authentication, RepositoryType.ENTITIES, Authorities.APPLICATION).toString())
+                .subscribeOn(this.graph.getScheduler());
+    }
+
     public Mono<Void> reset(Authentication authentication, RepositoryType repositoryType) {
         return this.graph.reset(authentication, repositoryType, Authorities.APPLICATION)
                 .doOnSubscribe(sub -> log.info("Purging repository through admin services"));
     }
 
     public Mono<Void> importEntities(Publisher<DataBuffer> bytes, String mimetype, Authentication authentication) {
-        return this.graph.importStatements(bytes, mimetype, authentication, Authorities.APPLICATION)
-                .doOnSubscribe(sub -> log.info("Importing statements of type '{}' through admin services", mimetype));
+        return this.importEntities(bytes, mimetype, new ImportProgress(0), authentication).then();
+    }
+
+    public Mono<ImportProgress> importEntities(Publisher<DataBuffer> bytes, String mimetype, ImportProgress progress, Authentication authentication) {
+        return this.graph.importStatements(bytes, mimetype, progress, authentication, Authorities.APPLICATION)
+                .doOnSubscribe(sub -> log.info("Importing statements of type '{}' through admin services (offset {})", mimetype, progress.getOffset()));
+    }
+
+    public Mono<ImportProgress> bulkImportEntities(Publisher<DataBuffer> bytes, String mimetype, ImportProgress progress, boolean initial, Authentication authentication) {
+        return this.graph.bulkImportStatements(bytes, mimetype, progress, initial, authentication, Authorities.APPLICATION)
+                .doOnSubscribe(sub -> log.info("Bulk loading statements of type '{}' through admin services (offset {}, initial load: {})", mimetype, progress.getOffset(), initial));
+    }
+
+    public Flux<DataBuffer> exportEntities(RDFFormat format, boolean gzip, DataBufferFactory bufferFactory, Authentication authentication) {
+        return this.graph.exportStatements(format, gzip, bufferFactory, authentication, Authorities.APPLICATION)
+                .doOnSubscribe(sub -> log.info("Exporting statements as '{}' through admin services (compressed: {})", format.getName(), gzip));
+    }
+
+    public Mono<Long> getChangeSequence(Authentication authentication) {
+        return this.graph.getChangeSequence(authentication, Authorities.APPLICATION);
+    }
+
+    public Flux<DataBuffer> exportChanges(long since, long until, boolean gzip, DataBufferFactory bufferFactory, Authentication authentication) {
+        return this.graph.exportChanges(since, until, gzip, bufferFactory, authentication, Authorities.APPLICATION)
+                .doOnSubscribe(sub -> log.info("Exporting changes after sequence {} up to {} through admin services (compressed: {})", since, until, gzip));
     }
 }
@@ -0,0 +1,288 @@
+package io.av360.maverick.graph.feature.admin.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.av360.maverick.graph.feature.admin.domain.model.Job;
+import io.av360.maverick.graph.feature.admin.domain.model.JobState;
+import io.av360.maverick.graph.feature.admin.domain.model.JobStatus;
+import io.av360.maverick.graph.store.rdf.WritePriority;
+import io.av360.maverick.graph.store.rdf.models.ImportProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Runs long-running administrative operations (imports, resets) as background jobs, the request only submits the job
+ * and the client polls its status.
+ * <p>
+ * At most a configured number of jobs are running at the same time on each node, further jobs are queued (short jobs
+ * which are awaited by the request, like resets, are started immediately instead). The state of
+ * each job is persisted as json file, jobs which were queued or running while the application was stopped are marked
+ * as failed at the next start (imports report the offset to resume with).
+ * <p>
+ * Jobs belong to the application which submitted them (identified by the label of its entity repository), other
+ * applications can neither see nor cancel them.
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.features.admin.jobs.maxConcurrent: number of jobs running at the same time (default: 2)</li>
+ *     <li>application.features.admin.jobs.path: directory for the state of the jobs and the uploads (default: not persisted, uploads in the temp directory)</li>
+ *     <li>application.features.admin.jobs.retention: hours the state of a finished job is kept (default: 24)</li>
+ * </ul>
+ */
+@Service
+@Slf4j(topic = "graph.feature.admin.jobs")
+public class JobsService implements DisposableBean {
+
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    @Nullable
+    private final Path path;
+
+    private final Map<String, Job> jobs;
+    private final Map<String, JobStatus> restored;
+    private final Sinks.Many<Job> queue;
+    private final Disposable worker;
+
+    public JobsService(ObjectMapper objectMapper,
+                       @Value("${application.features.admin.jobs.maxConcurrent:2}") int maxConcurrent,
+                       @Value("${application.features.admin.jobs.path:#{null}}") @Nullable String path,
+                       @Value("${application.features.admin.jobs.retention:24}") long retention) {
+        this.objectMapper = objectMapper;
+        this.retention = Duration.ofHours(retention);
+        this.path = StringUtils.hasLength(path) ? Paths.get(path) : null;
+        this.jobs = new ConcurrentHashMap<>();
+        this.restored = new ConcurrentHashMap<>();
+        this.queue = Sinks.many().unicast().onBackpressureBuffer();
+        this.worker = this.queue.asFlux()
+                .flatMap(this::run, Math.max(1, maxConcurrent))
+                .subscribe();
+
+        this.restore();
+    }
+
+    /**
+     * Queues a new job.
+     *
+     * @param application the label of the submitting application
+     * @param progress    the progress of an import, reported with the status of the job
+     * @param work        the operation, it is run with background priority
+     * @param cleanup     called once the job has finished
+     * @return the queued job
+     */
+    public Job submit(String application, String type, String description, @Nullable ImportProgress progress, Supplier<Mono<?>> work, @Nullable Runnable cleanup) {
+        Job job = new Job(application, type, description, progress, work, cleanup);
+        this.jobs.put(job.getId(), job);
+        this.persist(job);
+
+        this.queue.emitNext(job, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        log.info("Queued job '{}' ({}: {})", job.getId(), type, description);
+        return job;
+    }
+
+    /**
+     * Starts a new job immediately, without queueing it behind the running jobs. Meant for short operations which are
+     * awaited by the request (like a reset).
+     *
+     * @param application the label of the submitting application
+     * @param work        the operation, it is run with background priority
+     * @return the running job
+     */
+    public Job start(String application, String type, String description, Supplier<Mono<?>> work) {
+        Job job = new Job(application, type, description, null, work, null);
+        this.jobs.put(job.getId(), job);
+        this.persist(job);
+
+        log.info("Starting job '{}' ({}: {})", job.getId(), type, description);
+        this.run(job).subscribe();
+        return job;
+    }
+
+    /**
+     * @return the status of the job, empty if the job is unknown or has been submitted by another application
+     */
+    public Optional<JobStatus> get(String id, String application) {
+        Job job = this.jobs.get(id);
+        return (job != null ? Optional.of(job.getStatus()) : Optional.ofNullable(this.restored.get(id)))
+                .filter(status -> status.isSubmittedBy(application));
+    }
+
+    /**
+     * @return the jobs submitted by the given application
+     */
+    public List<JobStatus> list(String application) {
+        return Stream.concat(this.jobs.values().stream().map(Job::getStatus), this.restored.values().stream())
+                .filter(status -> status.isSubmittedBy(application))
+                .sorted(Comparator.comparing(JobStatus::created).reversed())
+                .toList();
+    }
+
+    /**
+     * Cancels a queued or running job, a running import stops with the next parsed statement.
+     *
+     * @return the status of the job, empty if the job is unknown or has been submitted by another application
+     */
+    public Optional<JobStatus> cancel(String id, String application) {
+        Job job = this.jobs.get(id);
+        if (job == null) return Optional.ofNullable(this.restored.get(id)).filter(status -> status.isSubmittedBy(application));
+        if (!application.equals(job.getApplication())) return Optional.empty();
+
+        if (job.cancel()) {
+            log.info("Cancelling job '{}'", id);
+            this.persist(job);
+        }
+        return Optional.of(job.getStatus());
+    }
+
+    /**
+     * @return the status of the job, once it has finished
+     */
+    public Mono<JobStatus> await(Job job) {
+        return job.completed().then(Mono.fromSupplier(job::getStatus));
+    }
+
+    /**
+     * Writes the uploaded content into a file, which is read by the job once it is running (and deleted once it has been read).
+     * The job is therefore independent of the request which submitted it.
+     */
+    public Mono<Path> spool(Publisher<DataBuffer> bytes) {
+        return Mono.fromCallable(() -> {
+                    Path directory = this.path != null ? Files.createDirectories(this.path.resolve("uploads")) : null;
+                    return directory != null ? Files.createTempFile(directory, "upload-", ".tmp") : Files.createTempFile("upload-", ".tmp");
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(file -> DataBufferUtils.write(bytes, file)
+                        .then(Mono.just(file))
+                        .onErrorResume(error -> Mono.fromRunnable(() -> delete(file)).then(Mono.error(error))));
+    }
+
+    public static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete file '{}': {}", file, e.getMessage());
+        }
+    }
+
+    private Mono<Job> run(Job job) {
+        return Mono.defer(() -> {
+                    if (!job.start()) return Mono.empty();
+                    this.persist(job);
+                    log.info("Running job '{}'", job.getId());
+                    return job.getWork().get();
+                })
+                .contextWrite(context -> WritePriority.with(context, WritePriority.BACKGROUND))
+                .takeUntilOther(job.cancelled())
+                .then(Mono.fromRunnable(() -> job.finish(job.isCancelled() ? JobState.CANCELLED : JobState.DONE, null)))
+                .onErrorResume(error -> Mono.fromRunnable(() -> {
+                    if (job.isCancelled()) {
+                        job.finish(JobState.CANCELLED, null);
+                    } else {
+                        log.warn("Job '{}' failed: {}", job.getId(), error.getMessage());
+                        job.finish(JobState.FAILED, error.getMessage());
+                    }
+                }))
+                .then(Mono.fromSupplier(() -> {
+                    log.info("Finished job '{}': {}", job.getId(), job.getState());
+                    this.persist(job);
+                    return job;
+                }));
+    }
+
+    /**
+     * Removes the finished jobs which are older than the retention period.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purge() {
+        Instant threshold = Instant.now().minus(this.retention);
+
+        this.jobs.values().removeIf(job -> {
+            if (!job.getState().isFinished() || job.getFinished().isAfter(threshold)) return false;
+            this.remove(job.getId());
+            return true;
+        });
+        this.restored.values().removeIf(status -> {
+            if (status.finished().isAfter(threshold)) return false;
+            this.remove(status.id());
+            return true;
+        });
+    }
+
+    private void persist(Job job) {
+        if (this.path == null) return;
+
+        try {
+            Path directory = Files.createDirectories(this.path);
+            Path temp = Files.createTempFile(directory, job.getId(), ".tmp");
+            this.objectMapper.writeValue(temp.toFile(), job.getStatus());
+            Files.move(temp, directory.resolve(job.getId() + ".json"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to persist state of job '{}': {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private void remove(String id) {
+        if (this.path == null) return;
+        delete(this.path.resolve(id + ".json"));
+    }
+
+    private void restore() {
+        if (this.path == null || !Files.isDirectory(this.path)) return;
+
+        try (Stream<Path> files = Files.list(this.path)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".json")).forEach(file -> {
+                try {
+                    JobStatus status = this.objectMapper.readValue(file.toFile(), JobStatus.class);
+                    if (!status.state().isFinished()) {
+                        status = status.interrupted();
+                        this.objectMapper.writeValue(file.toFile(), status);
+                        log.warn("Job '{}' has been interrupted by a restart, resume with offset {}", status.id(), status.offset());
+                    }
+                    this.restored.put(status.id(), status);
+                } catch (IOException e) {
+                    log.warn("Failed to read state of job from file '{}': {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to restore the state of jobs from '{}': {}", this.path, e.getMessage());
+        }
+
+        // uploads of interrupted jobs are never picked up again
+        try (Stream<Path> uploads = Files.isDirectory(this.path.resolve("uploads")) ? Files.list(this.path.resolve("uploads")) : Stream.empty()) {
+            uploads.forEach(JobsService::delete);
+        } catch (IOException e) {
+            log.warn("Failed to remove stale uploads: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.jobs.values().forEach(Job::cancel);
+        this.worker.dispose();
+    }
+}
@@ -0,0 +1,143 @@
+package io.av360.maverick.graph.feature.admin.domain.model;
+
+import io.av360.maverick.graph.store.rdf.models.ImportProgress;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * A long-running administrative operation (like an import), which is run in the background.
+ */
+public class Job {
+
+    private final String id;
+    private final String application;
+    private final String type;
+    private final String description;
+    private final Instant created;
+    @Nullable
+    private final ImportProgress progress;
+    private final Supplier<Mono<?>> work;
+    @Nullable
+    private final Runnable cleanup;
+    private final Sinks.Empty<Void> cancellation;
+    private final Sinks.Empty<Void> completion;
+
+    private volatile JobState state;
+    private volatile Instant started;
+    private volatile Instant finished;
+    private volatile String error;
+    private volatile boolean cancelled;
+
+    /**
+     * @param application the label of the application which submitted the job, only this application can access it
+     * @param progress    is reported with the status of the job, if the job is an import
+     * @param work        the operation, subscribed once the job is started
+     * @param cleanup     called once the job has finished (e.g. to remove an uploaded file)
+     */
+    public Job(String application, String type, String description, @Nullable ImportProgress progress, Supplier<Mono<?>> work, @Nullable Runnable cleanup) {
+        this.id = UUID.randomUUID().toString();
+        this.application = application;
+        this.type = type;
+        this.description = description;
+        this.created = Instant.now();
+        this.progress = progress;
+        this.work = work;
+        this.cleanup = cleanup;
+        this.cancellation = Sinks.empty();
+        this.completion = Sinks.empty();
+        this.state = JobState.QUEUED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public JobState getState() {
+        return state;
+    }
+
+    public Instant getFinished() {
+        return finished;
+    }
+
+    public Supplier<Mono<?>> getWork() {
+        return work;
+    }
+
+    /**
+     * @return false, if the job has been cancelled before it was started
+     */
+    public synchronized boolean start() {
+        if (this.state.isFinished()) return false;
+
+        this.state = JobState.RUNNING;
+        this.started = Instant.now();
+        if (this.progress != null) this.progress.start();
+        return true;
+    }
+
+    public synchronized void finish(JobState state, @Nullable String error) {
+        if (this.state.isFinished()) return;
+
+        this.state = state;
+        this.error = error;
+        this.finished = Instant.now();
+        if (this.cleanup != null) this.cleanup.run();
+        this.completion.tryEmitEmpty();
+    }
+
+    /**
+     * Requests the job to stop, a queued job is not started at all.
+     *
+     * @return false, if the job has already finished
+     */
+    public synchronized boolean cancel() {
+        if (this.state.isFinished()) return false;
+
+        this.cancelled = true;
+        if (this.progress != null) this.progress.cancel();
+        this.cancellation.tryEmitEmpty();
+        if (this.state == JobState.QUEUED) this.finish(JobState.CANCELLED, null);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * @return completes once the job has been cancelled
+     */
+    public Mono<Void> cancelled() {
+        return this.cancellation.asMono();
+    }
+
+    /**
+     * @return completes once the job has finished
+     */
+    public Mono<Void> completed() {
+        return this.completion.asMono();
+    }
+
+    public JobStatus getStatus() {
+        Instant end = this.finished != null ? this.finished : Instant.now();
+        long elapsed = this.started != null ? Duration.between(this.started, end).toMillis() : 0;
+
+        return new JobStatus(id, application, type, description, state, created, started, finished, elapsed,
+                progress != null ? progress.getBytes() : 0,
+                progress != null ? progress.getCommitted() : 0,
+                progress != null ? progress.getOffset() : 0,
+                progress != null ? progress.getRate() : 0,
+                error);
+    }
+}
@@ -0,0 +1,13 @@
+package io.av360.maverick.graph.feature.admin.domain.model;
+
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED || this == CANCELLED;
+    }
+}
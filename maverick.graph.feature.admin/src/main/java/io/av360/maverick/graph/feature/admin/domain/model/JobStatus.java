@@ -0,0 +1,27 @@
+package io.av360.maverick.graph.feature.admin.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of the state of a job, which is returned to the client and persisted.
+ *
+ * @param application the label of the application which submitted the job
+ * @param elapsed    milliseconds the job has been running
+ * @param bytes      bytes of the upload which have been committed (bulk loads only)
+ * @param statements statements which have been committed
+ * @param offset     offset to resume a failed import with
+ * @param rate       committed statements per second
+ */
+public record JobStatus(String id, String application, String type, String description, JobState state,
+                        Instant created, Instant started, Instant finished, long elapsed,
+                        long bytes, long statements, long offset, long rate, String error) {
+
+    public boolean isSubmittedBy(String application) {
+        return application.equals(this.application);
+    }
+
+    public JobStatus interrupted() {
+        return new JobStatus(id, application, type, description, JobState.FAILED, created, started, finished != null ? finished : Instant.now(), elapsed,
+                bytes, statements, offset, rate, "Interrupted by restart of the application");
+    }
+}
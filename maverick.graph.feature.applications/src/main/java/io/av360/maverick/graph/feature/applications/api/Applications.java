@@ -9,6 +9,7 @@ import io.av360.maverick.graph.feature.applications.domain.model.Application;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.support.CronExpression;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
@@ -133,6 +134,7 @@ public class Applications extends AbstractController {
         Assert.isTrue(StringUtils.hasLength(request.s3Host()), "S3 Host is a required parameter");
         Assert.isTrue(StringUtils.hasLength(request.s3BucketId()), "S3 Bucket ID is a required parameter");
         Assert.isTrue(StringUtils.hasLength(request.exportFrequency()), "Export frequency (as Cron) is a required parameter");
+        Assert.isTrue(CronExpression.isValidExpression(request.exportFrequency()), "Export frequency is not a valid cron expression (with six fields, starting with the seconds)");
 
         return super.getAuthentication()
                 .flatMap(authentication ->
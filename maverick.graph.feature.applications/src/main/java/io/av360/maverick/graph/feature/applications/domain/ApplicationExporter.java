@@ -0,0 +1,216 @@
+package io.av360.maverick.graph.feature.applications.domain;
+
+import io.av360.maverick.graph.feature.applications.domain.model.Application;
+import io.av360.maverick.graph.feature.applications.domain.model.ApplicationToken;
+import io.av360.maverick.graph.feature.applications.security.ApplicationAuthenticationToken;
+import io.av360.maverick.graph.model.security.ApiKeyAuthenticationToken;
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.EntityStore;
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exports the entity repository of an application as compressed N-Quads into a S3 bucket (or any S3-compatible
+ * storage).
+ * <p>
+ * The dump is streamed from the repository into a multipart upload, only the current part is kept in memory. The
+ * exports are running on their own scheduler, which caps the number of concurrent exports across all applications
+ * (further exports are queued).
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.features.applications.export.maxConcurrent: number of exports running at the same time (default: 2)</li>
+ *     <li>application.features.applications.export.partSize: size of the uploaded parts in bytes (default: 8 MB, at least 5 MB)</li>
+ *     <li>application.features.applications.export.region: region of the S3 storage (default: eu-west-1)</li>
+ *     <li>application.features.applications.export.accessKey and secretKey: credentials for the S3 storage (default: the default credentials of the AWS SDK)</li>
+ * </ul>
+ */
+@Service
+@Slf4j(topic = "graph.feature.apps.export")
+public class ApplicationExporter implements DisposableBean {
+
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int PREFETCH = 4;
+    private static final DateTimeFormatter EXPORT_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final EntityStore entityStore;
+    private final Scheduler scheduler;
+    private final int partSize;
+    private final Region region;
+    @Nullable
+    private final StaticCredentialsProvider credentials;
+
+    private final Map<String, S3Client> clients;
+    /* the identifiers of the queued or running exports by application */
+    private final Map<String, String> running;
+
+    public ApplicationExporter(EntityStore entityStore,
+                               @Value("${application.features.applications.export.maxConcurrent:2}") int maxConcurrent,
+                               @Value("${application.features.applications.export.partSize:8388608}") int partSize,
+                               @Value("${application.features.applications.export.region:eu-west-1}") String region,
+                               @Value("${application.features.applications.export.accessKey:#{null}}") @Nullable String accessKey,
+                               @Value("${application.features.applications.export.secretKey:#{null}}") @Nullable String secretKey) {
+        this.entityStore = entityStore;
+        this.scheduler = Schedulers.newBoundedElastic(Math.max(1, maxConcurrent), Integer.MAX_VALUE, "application-export");
+        this.partSize = Math.max(MIN_PART_SIZE, partSize);
+        this.region = Region.of(region);
+        this.credentials = StringUtils.hasLength(accessKey) && StringUtils.hasLength(secretKey)
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                : null;
+        this.clients = new ConcurrentHashMap<>();
+        this.running = new ConcurrentHashMap<>();
+    }
+
+    public static String getObjectKey(String applicationKey, String exportId) {
+        return applicationKey + "/" + exportId + ".nq.gz";
+    }
+
+    /**
+     * Queues the export of the application, the export is skipped if the previous export of the application is still
+     * queued or running.
+     *
+     * @return the identifier of the export, or of the previous export if it is still queued or running
+     */
+    public String submit(Application application, String s3Host, String s3BucketId) {
+        String exportId = EXPORT_ID.format(Instant.now());
+
+        String previous = this.running.putIfAbsent(application.key(), exportId);
+        if (previous != null) {
+            log.warn("Skipping export of application '{}', the previous export '{}' has not completed yet.", application.key(), previous);
+            return previous;
+        }
+
+        this.export(application, s3Host, s3BucketId, getObjectKey(application.key(), exportId))
+                .doFinally(signal -> this.running.remove(application.key(), exportId))
+                .subscribe(
+                        v -> { },
+                        error -> log.error("Export of application '{}' failed: {}", application.key(), error.getMessage())
+                );
+        return exportId;
+    }
+
+    public boolean isRunning(String applicationKey) {
+        return this.running.containsKey(applicationKey);
+    }
+
+    /**
+     * Streams the dump of the entity repository into the bucket.
+     */
+    public Mono<Void> export(Application application, String s3Host, String s3BucketId, String objectKey) {
+        return Mono.fromCallable(() -> {
+                    long started = System.nanoTime();
+                    Flux<DataBuffer> content = this.entityStore.exportStatements(RDFFormat.NQUADS, true, DefaultDataBufferFactory.sharedInstance,
+                            this.getAuthentication(application), Authorities.SYSTEM);
+
+                    try (DataBufferInputStream input = new DataBufferInputStream(content, PREFETCH)) {
+                        int parts = this.upload(this.getClient(s3Host), s3BucketId, objectKey, input);
+                        log.info("Exported application '{}' to '{}/{}' ({} bytes in {} parts, {} ms)", application.key(), s3BucketId, objectKey,
+                                input.getBytesRead(), parts, (System.nanoTime() - started) / 1000000);
+                    }
+                    return objectKey;
+                })
+                .subscribeOn(this.scheduler)
+                .doOnSubscribe(sub -> log.debug("Exporting application '{}' to '{}/{}'", application.key(), s3BucketId, objectKey))
+                .then();
+    }
+
+    /**
+     * Uploads the content in parts, the multipart upload is aborted if the upload fails.
+     *
+     * @return the number of uploaded parts
+     */
+    private int upload(S3Client s3, String bucket, String key, InputStream input) throws IOException {
+        String uploadId = s3.createMultipartUpload(request -> request.bucket(bucket).key(key).contentType("application/gzip")).uploadId();
+
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] buffer = new byte[this.partSize];
+            while (true) {
+                int length = input.readNBytes(buffer, 0, buffer.length);
+                // the last part might be empty (but an upload needs at least one part)
+                if (length == 0 && !parts.isEmpty()) break;
+
+                int partNumber = parts.size() + 1;
+                UploadPartResponse response = s3.uploadPart(request -> request.bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber).contentLength((long) length),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length));
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+
+                if (length < buffer.length) break;
+            }
+
+            s3.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId).multipartUpload(upload -> upload.parts(parts)));
+            return parts.size();
+        } catch (Exception e) {
+            log.warn("Aborting upload of '{}/{}': {}", bucket, key, e.getMessage());
+            try {
+                s3.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+            } catch (Exception abortFailure) {
+                log.warn("Failed to abort upload of '{}/{}': {}", bucket, key, abortFailure.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private S3Client getClient(String s3Host) {
+        return this.clients.computeIfAbsent(s3Host, host -> {
+            S3ClientBuilder builder = S3Client.builder()
+                    .forcePathStyle(true)
+                    .endpointOverride(URI.create(host))
+                    .region(this.region);
+            if (this.credentials != null) builder.credentialsProvider(this.credentials);
+            return builder.build();
+        });
+    }
+
+    /**
+     * The export is not running within a request, the authentication resolves the repositories of the application.
+     */
+    private ApplicationAuthenticationToken getAuthentication(Application application) {
+        ApiKeyAuthenticationToken token = new ApiKeyAuthenticationToken();
+        token.setAuthenticated(true);
+
+        ApplicationAuthenticationToken authentication = new ApplicationAuthenticationToken(token,
+                new ApplicationToken(null, "export", null, true, ZonedDateTime.now().toString(), application));
+        authentication.grantAuthority(Authorities.SYSTEM);
+        return authentication;
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.dispose();
+        this.clients.values().forEach(S3Client::close);
+    }
+}
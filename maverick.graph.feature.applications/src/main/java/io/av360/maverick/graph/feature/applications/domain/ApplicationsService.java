@@ -6,6 +6,7 @@ import io.av360.maverick.graph.feature.applications.domain.events.ApplicationCre
 import io.av360.maverick.graph.feature.applications.domain.events.TokenCreatedEvent;
 import io.av360.maverick.graph.feature.applications.domain.model.Application;
 import io.av360.maverick.graph.feature.applications.domain.model.ApplicationToken;
+import io.av360.maverick.graph.feature.applications.domain.model.ExportSchedule;
 import io.av360.maverick.graph.feature.applications.store.ApplicationsStore;
 import io.av360.maverick.graph.model.errors.DuplicateRecordsException;
 import io.av360.maverick.graph.model.rdf.GeneratedIdentifier;
@@ -23,19 +24,17 @@ import org.eclipse.rdf4j.sparqlbuilder.core.Variable;
 import org.eclipse.rdf4j.sparqlbuilder.core.query.ModifyQuery;
 import org.eclipse.rdf4j.sparqlbuilder.core.query.Queries;
 import org.eclipse.rdf4j.sparqlbuilder.core.query.SelectQuery;
+import org.eclipse.rdf4j.sparqlbuilder.graphpattern.TriplePattern;
+import org.eclipse.rdf4j.sparqlbuilder.rdf.Rdf;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import software.amazon.awssdk.core.ResponseBytes;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.*;
 
-import java.net.URI;
+
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -52,10 +51,13 @@ public class ApplicationsService {
 
     private final ApplicationEventPublisher eventPublisher;
 
+    private final ApplicationExporter exporter;
+
 
-    public ApplicationsService(ApplicationsStore store, ApplicationEventPublisher eventPublisher) {
+    public ApplicationsService(ApplicationsStore store, ApplicationEventPublisher eventPublisher, ApplicationExporter exporter) {
         this.applicationsStore = store;
         this.eventPublisher = eventPublisher;
+        this.exporter = exporter;
     }
 
     /**
@@ -373,55 +375,59 @@ public class ApplicationsService {
                 .doOnSubscribe(sub -> log.debug("Getting application config for application with key '{}'", applicationIdentifier));
     }
 
+    /**
+     * Queues the export of the application into its configured S3 bucket (see {@link ApplicationExporter}).
+     *
+     * @return the identifier of the export
+     */
     public Mono<String> exportApplication(String applicationIdentifier, Authentication authentication) {
+        return this.getExportSchedules(applicationIdentifier, authentication, Authorities.APPLICATION)
+                .collectList()
+                .flatMap(schedules -> schedules.size() > 1 ? Mono.error(new DuplicateRecordsException()) : Mono.justOrEmpty(schedules.stream().findFirst()))
+                .map(schedule -> this.exporter.submit(schedule.application(), schedule.s3Host(), schedule.s3BucketId()))
+                .doOnSubscribe(sub -> log.debug("Exporting application with key '{}'", applicationIdentifier));
+
+    }
 
+    /**
+     * @return the export configurations of all applications
+     */
+    public Flux<ExportSchedule> getExportSchedules(Authentication authentication) {
+        return this.getExportSchedules(null, authentication, Authorities.SYSTEM);
+    }
+
+    private Flux<ExportSchedule> getExportSchedules(@Nullable String applicationIdentifier, Authentication authentication, Authorities.WeightedAuthority requiredAuthority) {
         Variable node = SparqlBuilder.var("n");
+        Variable key = SparqlBuilder.var("a");
         Variable label = SparqlBuilder.var("b");
         Variable persistent = SparqlBuilder.var("c");
         Variable s3Host = SparqlBuilder.var("d");
         Variable s3BucketId = SparqlBuilder.var("e");
+        Variable exportFrequency = SparqlBuilder.var("f");
 
+        TriplePattern pattern = node.isA(Application.TYPE)
+                .andHas(Application.HAS_KEY, applicationIdentifier != null ? Rdf.literalOf(applicationIdentifier) : key)
+                .andHas(Application.HAS_LABEL, label)
+                .andHas(Application.IS_PERSISTENT, persistent)
+                .andHas(Application.HAS_S3_HOST, s3Host)
+                .andHas(Application.HAS_S3_BUCKET_ID, s3BucketId);
+        // only scheduled exports require a frequency, an application can be exported on request without one
         SelectQuery q = Queries.SELECT()
-                .where(node.isA(Application.TYPE)
-                        .andHas(Application.HAS_KEY, applicationIdentifier)
-                        .andHas(Application.HAS_LABEL, label)
-                        .andHas(Application.IS_PERSISTENT, persistent)
-                        .andHas(Application.HAS_S3_HOST, s3Host)
-                        .andHas(Application.HAS_S3_BUCKET_ID, s3BucketId)
-                )
-                .limit(1);
+                .where(applicationIdentifier != null ? pattern : pattern.andHas(Application.HAS_EXPORT_FREQUENCY, exportFrequency));
 
-
-        return this.applicationsStore.query(q, authentication, Authorities.APPLICATION)
-                .collectList()
-                .flatMap(this::getUniqueBindingSet)
+        return this.applicationsStore.query(q, authentication, requiredAuthority)
                 .map(BindingsAccessor::new)
-                .map(ba -> {
-
-                    //TODO: placeholder, should export the application
-                    String export = ba.asString(label);
-                    //this.queryServices.queryGraph();
-
-                    try {
-                        S3Client s3 = S3Client.builder()
-                                .forcePathStyle(true)
-                                .endpointOverride(URI.create(ba.asString(s3Host)))
-                                .region(Region.EU_WEST_1)
-                                .build();
-                        PutObjectRequest objectRequest = PutObjectRequest.builder()
-                                .bucket(ba.asString(s3BucketId))
-                                .key(applicationIdentifier)
-                                .build();
-                        s3.putObject(objectRequest, RequestBody.fromString(export));
-
-                    } catch (S3Exception e) {
-                        log.error(e.awsErrorDetails().errorMessage());
-                    }
-
-                    return applicationIdentifier;
-                })
-                .doOnSubscribe(sub -> log.debug("Exporting application with key '{}'", applicationIdentifier));
-
+                .map(ba -> new ExportSchedule(
+                        new Application(
+                                ba.asIRI(node),
+                                ba.asString(label),
+                                applicationIdentifier != null ? applicationIdentifier : ba.asString(key),
+                                ba.asBoolean(persistent)
+                        ),
+                        ba.asString(s3Host),
+                        ba.asString(s3BucketId),
+                        applicationIdentifier != null ? null : ba.asString(exportFrequency)
+                ));
     }
 
     public Mono<HashMap<String, String>> getExport(String applicationIdentifier, String exportId, Authentication authentication) {
@@ -451,7 +457,7 @@ public class ApplicationsService {
                     HashMap<String, String> response = new HashMap<>();
                     response.put("s3Host", ba.asString(s3Host));
                     response.put("s3BucketId", ba.asString(s3BucketId));
-                    response.put("s3ObjectId", applicationIdentifier);
+                    response.put("s3ObjectId", ApplicationExporter.getObjectKey(applicationIdentifier, exportId));
                     return response;
                 })
                 .doOnSubscribe(sub -> log.debug("Getting export '{}' for application '{}'", exportId, applicationIdentifier));
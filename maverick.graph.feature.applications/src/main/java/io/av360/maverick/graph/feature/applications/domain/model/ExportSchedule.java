@@ -0,0 +1,12 @@
+package io.av360.maverick.graph.feature.applications.domain.model;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * The configured export of an application.
+ *
+ * @param exportFrequency cron expression for the scheduled exports (null for exports on request)
+ */
+public record ExportSchedule(Application application, String s3Host, String s3BucketId, @Nullable String exportFrequency) {
+
+}
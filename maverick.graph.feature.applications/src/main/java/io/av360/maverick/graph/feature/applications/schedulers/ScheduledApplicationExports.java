@@ -0,0 +1,91 @@
+package io.av360.maverick.graph.feature.applications.schedulers;
+
+import io.av360.maverick.graph.feature.applications.domain.ApplicationExporter;
+import io.av360.maverick.graph.feature.applications.domain.ApplicationsService;
+import io.av360.maverick.graph.feature.applications.domain.model.ExportSchedule;
+import io.av360.maverick.graph.model.security.ApiKeyAuthenticationToken;
+import io.av360.maverick.graph.model.security.Authorities;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exports the applications according to their configured export frequency (a cron expression). The schedules are
+ * checked once per minute, an export is therefore started at most a minute after it is due.
+ */
+@Slf4j(topic = "graph.schedulers.exports")
+@Component
+public class ScheduledApplicationExports {
+
+    private final ApplicationsService applicationsService;
+    private final ApplicationExporter exporter;
+
+    /**
+     * The next export for each application
+     */
+    private final Map<String, NextExport> nextExports;
+
+    public ScheduledApplicationExports(ApplicationsService applicationsService, ApplicationExporter exporter) {
+        this.applicationsService = applicationsService;
+        this.exporter = exporter;
+        this.nextExports = new ConcurrentHashMap<>();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void checkForDueExports() {
+        ApiKeyAuthenticationToken authentication = new ApiKeyAuthenticationToken();
+        authentication.setAuthenticated(true);
+        authentication.grantAuthority(Authorities.SYSTEM);
+
+        this.applicationsService.getExportSchedules(authentication)
+                .collectList()
+                .doOnNext(this::runDueExports)
+                .doOnError(throwable -> log.error("(Scheduled) Checking for due exports failed.", throwable))
+                .subscribe();
+    }
+
+    void runDueExports(Iterable<ExportSchedule> schedules) {
+        ZonedDateTime now = ZonedDateTime.now();
+        Set<String> scheduled = new HashSet<>();
+
+        for (ExportSchedule schedule : schedules) {
+            String key = schedule.application().key();
+            if (!CronExpression.isValidExpression(schedule.exportFrequency())) {
+                log.warn("(Scheduled) Invalid export frequency '{}' for application '{}'", schedule.exportFrequency(), key);
+                continue;
+            }
+            CronExpression cron = CronExpression.parse(schedule.exportFrequency());
+            scheduled.add(key);
+
+            NextExport next = this.nextExports.get(key);
+            if (next == null || !next.frequency().equals(schedule.exportFrequency())) {
+                this.nextExports.put(key, new NextExport(schedule.exportFrequency(), cron.next(now)));
+                continue;
+            }
+            if (next.time() == null || next.time().isAfter(now)) continue;
+
+            this.nextExports.put(key, new NextExport(schedule.exportFrequency(), cron.next(now)));
+            if (this.exporter.isRunning(key)) {
+                log.warn("(Scheduled) Skipping export of application '{}', the previous export is still running.", key);
+                continue;
+            }
+
+            log.debug("(Scheduled) Starting export of application '{}'", key);
+            this.exporter.submit(schedule.application(), schedule.s3Host(), schedule.s3BucketId());
+        }
+
+        // forget the applications which are not configured for exports anymore
+        this.nextExports.keySet().retainAll(scheduled);
+    }
+
+    private record NextExport(String frequency, ZonedDateTime time) {
+
+    }
+}
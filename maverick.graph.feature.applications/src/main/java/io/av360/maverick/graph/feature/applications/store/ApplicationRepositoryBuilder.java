@@ -1,7 +1,5 @@
 package io.av360.maverick.graph.feature.applications.store;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import io.av360.maverick.graph.feature.applications.domain.model.Application;
 import io.av360.maverick.graph.feature.applications.security.ApplicationAuthenticationToken;
 import io.av360.maverick.graph.model.security.ApiKeyAuthenticationToken;
@@ -9,6 +7,8 @@ import io.av360.maverick.graph.model.security.Authorities;
 import io.av360.maverick.graph.store.RepositoryBuilder;
 import io.av360.maverick.graph.store.RepositoryType;
 import io.av360.maverick.graph.store.rdf.LabeledRepository;
+import io.av360.maverick.graph.store.rdf4j.config.LmdbStorageProperties;
+import io.av360.maverick.graph.store.rdf4j.config.RepositoryRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.sail.SailRepository;
@@ -30,7 +30,6 @@ import org.springframework.util.StringUtils;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Replaces the @see DefaultRepositoryBuilder
@@ -49,11 +48,13 @@ public class ApplicationRepositoryBuilder implements RepositoryBuilder {
     private String schemaPath;
     @Value("${application.storage.default.path: #{null}}")
     private String applicationsPath;
-    private final Cache<String, Repository> repositoryCache;
+    private final RepositoryRegistry repositories;
+    private final LmdbStorageProperties lmdbProperties;
 
 
-    public ApplicationRepositoryBuilder() {
-        repositoryCache = Caffeine.newBuilder().expireAfterAccess(60, TimeUnit.MINUTES).build();
+    public ApplicationRepositoryBuilder(RepositoryRegistry repositories, LmdbStorageProperties lmdbProperties) {
+        this.repositories = repositories;
+        this.lmdbProperties = lmdbProperties;
     }
 
 
@@ -73,7 +74,7 @@ public class ApplicationRepositoryBuilder implements RepositoryBuilder {
 
 
         if (authentication instanceof TestingAuthenticationToken) {
-            return this.repositoryCache.get(repositoryType.name(), s -> new LabeledRepository("test:" + repositoryType.name(), new SailRepository(new MemoryStore())));
+            return this.repositories.get(repositoryType.name(), () -> new LabeledRepository("test:" + repositoryType.name(), new SailRepository(new MemoryStore())));
         }
 
         if (authentication instanceof ApplicationAuthenticationToken && Authorities.satisfies(Authorities.READER, authentication.getAuthorities())) {
@@ -164,18 +165,18 @@ public class ApplicationRepositoryBuilder implements RepositoryBuilder {
 
     private Repository getApplicationRepository() {
         String key = "applications: default";
-        return this.repositoryCache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.applicationsPath, "applications")));
+        return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.applicationsPath, "applications", RepositoryType.APPLICATION)));
     }
 
 
     private Repository getSchemaRepository(@Nullable Application application) {
         if (application == null) {
             String key = "schema: default";
-            return this.repositoryCache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.schemaPath, "schema")));
+            return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.schemaPath, "schema", RepositoryType.SCHEMA)));
         } else {
             log.warn("Application-scoped schema repositories are not supported yet");
             String key = "schema: default";
-            return this.repositoryCache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.schemaPath, "schema")));
+            return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.schemaPath, "schema", RepositoryType.SCHEMA)));
         }
 
         // TODO: check if application has individual schema repo, otherwise we return default
@@ -186,10 +187,10 @@ public class ApplicationRepositoryBuilder implements RepositoryBuilder {
     private Repository getEntityRepository(@Nullable Application application) {
         if (application == null) {
             String key = "entities: default";
-            return this.repositoryCache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.applicationsPath, "entities")));
+            return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.applicationsPath, "entities", RepositoryType.ENTITIES)));
         } else {
             String key = "entities: " + application.key();
-            return this.repositoryCache.get(key, s -> new LabeledRepository(key, this.buildApplicationsRepository(application, "entities", this.entitiesPath)));
+            return this.repositories.get(key, () -> new LabeledRepository(key, this.buildApplicationsRepository(application, "entities", this.entitiesPath, RepositoryType.ENTITIES)));
         }
 
     }
@@ -197,38 +198,38 @@ public class ApplicationRepositoryBuilder implements RepositoryBuilder {
     private Repository getTransactionsRepository(@Nullable Application application) {
         if (application == null) {
             String key = "transactions: default";
-            return this.repositoryCache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.transactionsPath, "entities")));
+            return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.transactionsPath, "entities", RepositoryType.TRANSACTIONS)));
         } else {
             String key = "transactions: " + application.key();
-            return this.repositoryCache.get(key, s -> new LabeledRepository(key, this.buildApplicationsRepository(application, "transactions", this.transactionsPath)));
+            return this.repositories.get(key, () -> new LabeledRepository(key, this.buildApplicationsRepository(application, "transactions", this.transactionsPath, RepositoryType.TRANSACTIONS)));
         }
     }
 
 
-    private Repository buildDefaultRepository(String basePath, String label) {
+    private Repository buildDefaultRepository(String basePath, String label, RepositoryType repositoryType) {
         if (!StringUtils.hasLength(basePath)) {
             log.debug("(Store) Initializing volatile {} repository for application", label);
             return new SailRepository(new MemoryStore());
         } else {
-            return this.initializePersistentRepository(Paths.get(basePath, label, "lmdb"), label);
+            return this.initializePersistentRepository(this.repositories.resolvePath(Paths.get(basePath, label, "lmdb")), label, repositoryType);
         }
     }
 
 
-    private Repository buildApplicationsRepository(Application subscription, String label, String basePath) {
+    private Repository buildApplicationsRepository(Application subscription, String label, String basePath, RepositoryType repositoryType) {
         if (!subscription.persistent() || !StringUtils.hasLength(basePath)) {
             log.debug("(Store) Initializing volatile {} repository for application '{}' [{}]", label, subscription.label(), subscription.key());
             return new SailRepository(new MemoryStore());
         } else {
-            Path path = Paths.get(basePath, subscription.key(), label, "lmdb");
-            return this.initializePersistentRepository(path, label);
+            Path path = this.repositories.resolvePath(Paths.get(basePath, subscription.key(), label, "lmdb"));
+            return this.initializePersistentRepository(path, label, repositoryType);
         }
     }
 
-    private Repository initializePersistentRepository(Path path, String label) {
+    private Repository initializePersistentRepository(Path path, String label, RepositoryType repositoryType) {
         try {
             Resource file = new FileSystemResource(path);
-            LmdbStoreConfig config = new LmdbStoreConfig();
+            LmdbStoreConfig config = this.lmdbProperties.getStoreConfig(repositoryType);
 
             log.debug("(Store) Initializing persistent {} repository in path '{}'", label, file.getFile().toPath());
 
@@ -0,0 +1,183 @@
+package io.av360.maverick.graph.feature.applications;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.av360.maverick.graph.feature.applications.domain.ApplicationExporter;
+import io.av360.maverick.graph.feature.applications.domain.model.Application;
+import io.av360.maverick.graph.feature.applications.domain.model.ApplicationToken;
+import io.av360.maverick.graph.feature.applications.security.ApplicationAuthenticationToken;
+import io.av360.maverick.graph.model.security.ApiKeyAuthenticationToken;
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.EntityStore;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Exports into a minimal S3-compatible stand-in, which only supports multipart uploads.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "application.features.applications.export.accessKey=test",
+        "application.features.applications.export.secretKey=test"
+})
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+class ApplicationExportTest extends TestsBase {
+
+    @Autowired
+    private ApplicationExporter exporter;
+
+    @Autowired
+    private EntityStore entityStore;
+
+    private HttpServer s3;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private volatile boolean blocking;
+
+    @BeforeEach
+    void startStorage() throws IOException {
+        this.s3 = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.s3.createContext("/", this::handle);
+        this.s3.start();
+    }
+
+    @AfterEach
+    void stopStorage() {
+        this.released.countDown();
+        this.s3.stop(0);
+    }
+
+    @Test
+    void exportApplication() throws IOException {
+        Application application = new Application(SimpleValueFactory.getInstance().createIRI("urn:test:app"), "test", "exportTest", false);
+
+        Model model = new ModelBuilder()
+                .subject("urn:test:a").add(RDF.TYPE, RDFS.RESOURCE).add(RDFS.LABEL, "a")
+                .subject("urn:test:b").add(RDF.TYPE, RDFS.RESOURCE).add(RDFS.LABEL, "b")
+                .build();
+        this.entityStore.insert(model, this.getAuthentication(application), Authorities.APPLICATION).block();
+
+        String host = "http://localhost:" + this.s3.getAddress().getPort();
+        this.exporter.export(application, host, "bucket", ApplicationExporter.getObjectKey(application.key(), "1")).block();
+
+        Assertions.assertEquals(List.of("POST uploads", "PUT partNumber=1", "POST uploadId"), this.requests);
+
+        Model exported = Rio.parse(new GZIPInputStream(new ByteArrayInputStream(this.uploaded.toByteArray())), RDFFormat.NQUADS);
+        Assertions.assertEquals(model.size(), exported.size());
+    }
+
+    @Test
+    void skipExportWhileRunning() throws InterruptedException {
+        Application application = new Application(SimpleValueFactory.getInstance().createIRI("urn:test:app"), "test", "skipTest", false);
+        String host = "http://localhost:" + this.s3.getAddress().getPort();
+        this.blocking = true;
+
+        String exportId = this.exporter.submit(application, host, "bucket");
+        // the identifiers have a resolution of seconds
+        Thread.sleep(1100);
+        String skipped = this.exporter.submit(application, host, "bucket");
+
+        Assertions.assertEquals(exportId, skipped);
+        this.released.countDown();
+
+        // the running export completes its upload before the storage is stopped
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (this.exporter.isRunning(application.key())) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Export has not completed");
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals("POST uploadId", this.requests.get(this.requests.size() - 1));
+        Assertions.assertEquals(1, this.requests.stream().filter("POST uploads"::equals).count());
+    }
+
+    private ApplicationAuthenticationToken getAuthentication(Application application) {
+        ApiKeyAuthenticationToken token = new ApiKeyAuthenticationToken();
+        token.setAuthenticated(true);
+        ApplicationAuthenticationToken authentication = new ApplicationAuthenticationToken(token,
+                new ApplicationToken(null, "test", null, true, ZonedDateTime.now().toString(), application));
+        authentication.grantAuthority(Authorities.APPLICATION);
+        return authentication;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        String response = "";
+
+        if (exchange.getRequestMethod().equals("POST") && query.startsWith("uploads")) {
+            this.requests.add("POST uploads");
+            if (this.blocking) this.await();
+            response = "<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>key</Key><UploadId>1</UploadId></InitiateMultipartUploadResult>";
+        } else if (exchange.getRequestMethod().equals("PUT")) {
+            this.requests.add("PUT " + query.substring(query.indexOf("partNumber"), query.indexOf("partNumber") + 12));
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            String contentHash = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            this.uploaded.write(contentHash != null && contentHash.startsWith("STREAMING-") ? this.decodeChunks(body) : body);
+            exchange.getResponseHeaders().add("ETag", "\"1\"");
+        } else if (exchange.getRequestMethod().equals("POST")) {
+            exchange.getRequestBody().readAllBytes();
+            this.requests.add("POST uploadId");
+            response = "<CompleteMultipartUploadResult><Bucket>bucket</Bucket><Key>key</Key><ETag>\"1\"</ETag></CompleteMultipartUploadResult>";
+        } else {
+            this.requests.add(exchange.getRequestMethod() + " " + query);
+        }
+
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length > 0 ? bytes.length : -1);
+        if (bytes.length > 0) exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private void await() {
+        try {
+            this.released.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Removes the signatures of the chunks (aws-chunked encoding)
+     */
+    private byte[] decodeChunks(byte[] body) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        InputStream input = new ByteArrayInputStream(body);
+        while (true) {
+            StringBuilder header = new StringBuilder();
+            int c;
+            while ((c = input.read()) != '\n' && c >= 0) header.append((char) c);
+            int size = Integer.parseInt(header.toString().split(";")[0].trim(), 16);
+            if (size == 0) break;
+            result.write(input.readNBytes(size));
+            input.skipNBytes(2);
+        }
+        return result.toByteArray();
+    }
+}
@@ -0,0 +1,275 @@
+package io.av360.maverick.graph.store.rdf4j.config;
+
+import io.av360.maverick.graph.model.errors.ChangesUnavailable;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.rio.helpers.NTriplesUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Records the changes of each committed transaction as <a href="https://afs.github.io/rdf-patch/">RDF Patch</a>, which
+ * allows to export only the changes since a previous export (instead of a full dump).
+ * <p>
+ * Each transaction is appended with a monotonically increasing sequence (in the header 'H seq') to the journal of its
+ * repository. The journal is split into segments, which are named by the sequence of their first transaction. The
+ * oldest segments are removed once the journal exceeds its maximum size. Changes before the oldest recorded transaction
+ * are therefore not available anymore.
+ * <p>
+ * Only transactions are recorded. Changes without a transaction (imports, update queries, a reset of the repository) or
+ * a transaction which could not be recorded clear the journal and skip a sequence, all previous exports therefore require
+ * a full export again.
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.storage.journal.path: directory of the journals (default: none, changes are not recorded)</li>
+ *     <li>application.storage.journal.segmentSize: size of a segment in bytes (default: 64 MB)</li>
+ *     <li>application.storage.journal.maxSize: maximum size of the journal of a repository in bytes (default: 1 GB)</li>
+ * </ul>
+ */
+@Component
+@Slf4j(topic = "graph.repository.journal")
+public class ChangeJournal {
+
+    private static final String SEGMENT_SUFFIX = ".rdfp";
+    private static final String SEQUENCE_HEADER = "H seq \"";
+
+    @Nullable
+    private final Path path;
+    private final long segmentSize;
+    private final long maxSize;
+    private final Map<String, Journal> journals;
+
+    public ChangeJournal(@Value("${application.storage.journal.path:#{null}}") @Nullable String path,
+                         @Value("${application.storage.journal.segmentSize:67108864}") long segmentSize,
+                         @Value("${application.storage.journal.maxSize:1073741824}") long maxSize) {
+        this.path = StringUtils.hasLength(path) ? Paths.get(path) : null;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.journals = new ConcurrentHashMap<>();
+    }
+
+    public boolean isEnabled() {
+        return this.path != null;
+    }
+
+    /**
+     * Appends the changes of a committed transaction. Must be called in the order of the commits.
+     */
+    public void append(Repository repository, Resource transaction, Collection<Statement> inserted, Collection<Statement> removed) throws IOException {
+        if (!this.isEnabled() || (inserted.isEmpty() && removed.isEmpty())) return;
+
+        StringBuilder block = new StringBuilder();
+        block.append("H id ").append(NTriplesUtil.toNTriplesString(transaction)).append(" .\n");
+        block.append("TX .\n");
+        inserted.forEach(statement -> this.appendStatement(block, "A ", statement));
+        removed.forEach(statement -> this.appendStatement(block, "D ", statement));
+        block.append("TC .\n");
+
+        this.getJournal(repository).append(block.toString());
+    }
+
+    /**
+     * @return the sequence of the last recorded transaction
+     */
+    public long getSequence(Repository repository) throws IOException, ChangesUnavailable {
+        if (!this.isEnabled()) throw new ChangesUnavailable(repository.toString(), -1);
+        return this.getJournal(repository).getSequence();
+    }
+
+    /**
+     * Writes the transactions with a sequence after 'since' up to 'until' (inclusive) into the stream.
+     *
+     * @throws ChangesUnavailable if the changes after 'since' are not recorded (anymore)
+     */
+    public void read(Repository repository, long since, long until, OutputStream output) throws IOException, ChangesUnavailable {
+        if (!this.isEnabled()) throw new ChangesUnavailable(repository.toString(), -1);
+        this.getJournal(repository).read(since, until, output);
+    }
+
+    /**
+     * @throws ChangesUnavailable if the changes after 'since' are not recorded (anymore)
+     */
+    public void assertAvailable(Repository repository, long since) throws IOException, ChangesUnavailable {
+        if (!this.isEnabled()) throw new ChangesUnavailable(repository.toString(), -1);
+        this.getJournal(repository).assertAvailable(since);
+    }
+
+    /**
+     * Removes the recorded changes, since the repository has been changed without recording the changes (e.g. it has
+     * been emptied). The sequence is incremented, the changes after any previous sequence are therefore not available.
+     */
+    public void reset(Repository repository) throws IOException {
+        if (!this.isEnabled()) return;
+        this.getJournal(repository).reset();
+    }
+
+    private void appendStatement(StringBuilder block, String operation, Statement statement) {
+        block.append(operation)
+                .append(NTriplesUtil.toNTriplesString(statement.getSubject(), true)).append(' ')
+                .append(NTriplesUtil.toNTriplesString(statement.getPredicate(), true)).append(' ')
+                .append(NTriplesUtil.toNTriplesString(statement.getObject(), true));
+        if (statement.getContext() != null) {
+            block.append(' ').append(NTriplesUtil.toNTriplesString(statement.getContext(), true));
+        }
+        block.append(" .\n");
+    }
+
+    private Journal getJournal(Repository repository) throws IOException {
+        try {
+            return this.journals.computeIfAbsent(repository.toString(), label -> {
+                try {
+                    return new Journal(label, this.path.resolve(label.replaceAll("[^A-Za-z0-9._-]", "_")));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof IOException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static long parseSequence(String line) {
+        if (!line.startsWith(SEQUENCE_HEADER) || !line.endsWith("\" .")) return -1;
+        try {
+            return Long.parseLong(line.substring(SEQUENCE_HEADER.length(), line.length() - 3));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The journal of one repository
+     */
+    private class Journal {
+        private final String label;
+        private final Path directory;
+        /**
+         * The segments (by the sequence of their first transaction) with their sizes
+         */
+        private final TreeMap<Long, Long> segments;
+        private long sequence;
+        private long size;
+
+        Journal(String label, Path directory) throws IOException {
+            this.label = label;
+            this.directory = Files.createDirectories(directory);
+            this.segments = new TreeMap<>();
+
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                    String name = file.getFileName().toString();
+                    this.segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), Files.size(file));
+                }
+            }
+            this.size = this.segments.values().stream().mapToLong(Long::longValue).sum();
+            this.sequence = this.segments.isEmpty() ? 0 : this.segments.lastKey() - 1;
+
+            if (!this.segments.isEmpty()) {
+                try (BufferedReader reader = Files.newBufferedReader(this.segment(this.segments.lastKey()), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        this.sequence = Math.max(this.sequence, parseSequence(line));
+                    }
+                }
+            }
+            log.debug("Opened journal of repository '{}' at sequence {}", label, this.sequence);
+        }
+
+        synchronized long getSequence() {
+            return this.sequence;
+        }
+
+        synchronized void append(String block) throws IOException {
+            long next = this.sequence + 1;
+            // the sequence comes first, a reader therefore stops at a transaction which is still being written
+            byte[] bytes = (SEQUENCE_HEADER + next + "\" .\n" + block).getBytes(StandardCharsets.UTF_8);
+
+            if (this.segments.isEmpty() || this.segments.lastEntry().getValue() >= segmentSize) {
+                this.segments.put(next, 0L);
+            }
+            Files.write(this.segment(this.segments.lastKey()), bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            this.segments.merge(this.segments.lastKey(), (long) bytes.length, Long::sum);
+            this.size += bytes.length;
+            this.sequence = next;
+
+            while (this.size > maxSize && this.segments.size() > 1) {
+                Map.Entry<Long, Long> oldest = this.segments.pollFirstEntry();
+                Files.deleteIfExists(this.segment(oldest.getKey()));
+                this.size -= oldest.getValue();
+                log.debug("Removed segment {} from journal of repository '{}', changes are available after sequence {}", oldest.getKey(), label, this.segments.firstKey() - 1);
+            }
+        }
+
+        void read(long since, long until, OutputStream output) throws IOException, ChangesUnavailable {
+            List<Long> starts = new ArrayList<>();
+            synchronized (this) {
+                this.assertAvailable(since);
+
+                // the segment containing the first requested transaction, and all segments after it
+                Long first = this.segments.floorKey(since + 1);
+                starts.addAll(this.segments.tailMap(first != null ? first : since + 1, true).keySet());
+            }
+
+            for (Long start : starts) {
+                if (start > until) return;
+                try (BufferedReader reader = Files.newBufferedReader(this.segment(start), StandardCharsets.UTF_8)) {
+                    boolean included = false;
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.startsWith(SEQUENCE_HEADER)) {
+                            long sequence = parseSequence(line);
+                            if (sequence < 0 || sequence > until) return;
+                            included = sequence > since;
+                        }
+                        if (included) output.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+
+        synchronized void assertAvailable(long since) throws ChangesUnavailable {
+            long available = this.segments.isEmpty() ? this.sequence : this.segments.firstKey() - 1;
+            if (since < available) throw new ChangesUnavailable(this.label, available);
+        }
+
+        synchronized void reset() throws IOException {
+            for (Long start : this.segments.keySet()) {
+                Files.deleteIfExists(this.segment(start));
+            }
+            this.segments.clear();
+            this.size = 0;
+
+            // the unrecorded changes take a sequence, an empty segment keeps it (and marks the changes before as unavailable)
+            this.sequence++;
+            Files.createFile(this.segment(this.sequence + 1));
+            this.segments.put(this.sequence + 1, 0L);
+            log.debug("Cleared journal of repository '{}' at sequence {}", label, this.sequence);
+        }
+
+        private Path segment(long start) {
+            return this.directory.resolve(String.format("%020d", start) + SEGMENT_SUFFIX);
+        }
+    }
+}
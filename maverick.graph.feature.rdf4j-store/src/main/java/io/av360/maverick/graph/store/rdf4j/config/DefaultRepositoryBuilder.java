@@ -1,7 +1,5 @@
 package io.av360.maverick.graph.store.rdf4j.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import io.av360.maverick.graph.model.security.ApiKeyAuthenticationToken;
 import io.av360.maverick.graph.model.security.Authorities;
 import io.av360.maverick.graph.store.RepositoryBuilder;
@@ -13,6 +11,7 @@ import org.eclipse.rdf4j.repository.sail.SailRepository;
 import org.eclipse.rdf4j.sail.lmdb.LmdbStore;
 import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
 import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.core.io.FileSystemResource;
@@ -29,7 +28,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 @Component
 @Slf4j(topic = "graph.repository.config")
@@ -47,15 +45,17 @@ public class DefaultRepositoryBuilder implements RepositoryBuilder {
 
     @Value("${application.storage.default.path: #{null}}")
     private String applicationsPath;
-    private final Cache<String, Repository> cache;
+    private final RepositoryRegistry repositories;
+    private final LmdbStorageProperties lmdbProperties;
     private Map<String, List<String>> storage;
     private String test;
     private Map<String, String> security;
 
 
-    public DefaultRepositoryBuilder() {
-
-        cache = Caffeine.newBuilder().expireAfterAccess(60, TimeUnit.MINUTES).build();
+    @Autowired
+    public DefaultRepositoryBuilder(RepositoryRegistry repositories, LmdbStorageProperties lmdbProperties) {
+        this.repositories = repositories;
+        this.lmdbProperties = lmdbProperties;
     }
 
 
@@ -74,7 +74,7 @@ public class DefaultRepositoryBuilder implements RepositoryBuilder {
 
 
         if (authentication instanceof TestingAuthenticationToken) {
-            return this.cache.get(repositoryType.name(), s -> new LabeledRepository("Test:" + repositoryType.name(), new SailRepository(new MemoryStore())));
+            return this.repositories.get(repositoryType.name(), () -> new LabeledRepository("Test:" + repositoryType.name(), new SailRepository(new MemoryStore())));
         }
 
         if (authentication instanceof ApiKeyAuthenticationToken && Authorities.satisfies(Authorities.READER, authentication.getAuthorities())) {
@@ -105,41 +105,41 @@ public class DefaultRepositoryBuilder implements RepositoryBuilder {
     protected Repository buildApplicationRepository(String scope) {
         String key = "applications: " + scope;
         // TODO: check if application has individual schema repo, otherwise we return default
-        return this.cache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.applicationsPath, "applications")));
+        return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.applicationsPath, "applications", RepositoryType.APPLICATION)));
     }
 
 
     protected Repository buildSchemaRepository(String scope) {
         String key = "schema: " + scope;
         // TODO: check if application has individual schema repo, otherwise we return default
-        return this.cache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.schemaPath, "schema")));
+        return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.schemaPath, "schema", RepositoryType.SCHEMA)));
     }
 
 
     protected Repository buildEntityRepository(String scope) {
         String key = "entities:" + scope;
-        return this.cache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.entitiesPath, "entities")));
+        return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.entitiesPath, "entities", RepositoryType.ENTITIES)));
     }
 
     protected Repository buildTransactionsRepository(String scope) {
         String key = "transactions:" + scope;
-        return this.cache.get(key, s -> new LabeledRepository(key, this.buildDefaultRepository(this.transactionsPath, "transactions")));
+        return this.repositories.get(key, () -> new LabeledRepository(key, this.buildDefaultRepository(this.transactionsPath, "transactions", RepositoryType.TRANSACTIONS)));
     }
 
 
-    protected Repository buildDefaultRepository(String basePath, String label) {
+    protected Repository buildDefaultRepository(String basePath, String label, RepositoryType repositoryType) {
         if (!StringUtils.hasLength(basePath)) {
             return this.initializeVolatileRepository(label);
         } else {
-            return this.initializePersistentRepository(Paths.get(basePath, label, "lmdb"), label);
+            return this.initializePersistentRepository(this.repositories.resolvePath(Paths.get(basePath, label, "lmdb")), label, repositoryType);
         }
     }
 
 
-    protected Repository initializePersistentRepository(Path path, String label) {
+    protected Repository initializePersistentRepository(Path path, String label, RepositoryType repositoryType) {
         try {
             Resource file = new FileSystemResource(path);
-            LmdbStoreConfig config = new LmdbStoreConfig();
+            LmdbStoreConfig config = this.lmdbProperties.getStoreConfig(repositoryType);
 
             log.debug("(Store) Initializing persistent {} repository in path '{}'", label, file.getFile().toPath());
 
@@ -0,0 +1,133 @@
+package io.av360.maverick.graph.store.rdf4j.config;
+
+import io.av360.maverick.graph.store.RepositoryType;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The configuration of the LMDB stores, which can be set individually for each repository type, e.g.
+ *
+ * <pre>
+ * application:
+ *   storage:
+ *     entities:
+ *       lmdb:
+ *         tripleIndexes: "spoc,posc,ospc"
+ *         tripleDbSize: 1GB
+ *         valueDbSize: 1GB
+ *         autoGrow: true
+ *         forceSync: false
+ *         valueCacheSize: 4096
+ *         valueIdCacheSize: 1024
+ *         namespaceCacheSize: 64
+ *         namespaceIdCacheSize: 64
+ * </pre>
+ * <p>
+ * Supported types are 'entities', 'transactions', 'schema' and 'applications'. Settings which are not set fall back to
+ * the defaults of the LMDB store.
+ */
+@Component
+@ConfigurationProperties(prefix = "application.storage")
+@Slf4j(topic = "graph.repository.config")
+@Data
+public class LmdbStorageProperties {
+
+    private static final Pattern INDEX = Pattern.compile("[spoc]{4}");
+
+    private Storage entities = new Storage();
+    private Storage transactions = new Storage();
+    private Storage schema = new Storage();
+    private Storage applications = new Storage();
+
+
+    @PostConstruct
+    public void validate() {
+        Map.of("entities", entities, "transactions", transactions, "schema", schema, "applications", applications).forEach((label, storage) -> {
+            LmdbStoreConfig config = storage.getLmdb().validate(label).toStoreConfig();
+            log.info("(Store) Effective LMDB configuration for {} repositories: indexes '{}', triple db size {} bytes, value db size {} bytes, autoGrow {}, forceSync {}, value cache {}, value id cache {}, namespace cache {}, namespace id cache {}",
+                    label, config.getTripleIndexes(), config.getTripleDBSize(), config.getValueDBSize(), config.getAutoGrow(), config.getForceSync(),
+                    config.getValueCacheSize(), config.getValueIDCacheSize(), config.getNamespaceCacheSize(), config.getNamespaceIDCacheSize());
+        });
+    }
+
+    /**
+     * @return a new store configuration for repositories of the given type
+     */
+    public LmdbStoreConfig getStoreConfig(RepositoryType repositoryType) {
+        return switch (repositoryType) {
+            case ENTITIES -> entities.getLmdb().toStoreConfig();
+            case TRANSACTIONS -> transactions.getLmdb().toStoreConfig();
+            case SCHEMA -> schema.getLmdb().toStoreConfig();
+            case APPLICATION -> applications.getLmdb().toStoreConfig();
+        };
+    }
+
+
+    @Data
+    public static class Storage {
+        private Lmdb lmdb = new Lmdb();
+    }
+
+    @Data
+    public static class Lmdb {
+        @Nullable
+        private String tripleIndexes;
+        @Nullable
+        private DataSize tripleDbSize;
+        @Nullable
+        private DataSize valueDbSize;
+        @Nullable
+        private Boolean autoGrow;
+        @Nullable
+        private Boolean forceSync;
+        @Nullable
+        private Integer valueCacheSize;
+        @Nullable
+        private Integer valueIdCacheSize;
+        @Nullable
+        private Integer namespaceCacheSize;
+        @Nullable
+        private Integer namespaceIdCacheSize;
+
+        Lmdb validate(String label) {
+            if (tripleIndexes != null) {
+                String[] indexes = tripleIndexes.trim().split("\\s*[,\\s]\\s*");
+                Assert.isTrue(Arrays.stream(indexes).allMatch(index -> INDEX.matcher(index).matches() && Set.of(index.split("")).size() == 4),
+                        String.format("Invalid triple indexes '%s' for %s repositories, expected a list of permutations of 'spoc'", tripleIndexes, label));
+            }
+            Assert.isTrue(tripleDbSize == null || tripleDbSize.toBytes() > 0, String.format("The triple db size for %s repositories must be positive", label));
+            Assert.isTrue(valueDbSize == null || valueDbSize.toBytes() > 0, String.format("The value db size for %s repositories must be positive", label));
+            Assert.isTrue(valueCacheSize == null || valueCacheSize > 0, String.format("The value cache size for %s repositories must be positive", label));
+            Assert.isTrue(valueIdCacheSize == null || valueIdCacheSize > 0, String.format("The value id cache size for %s repositories must be positive", label));
+            Assert.isTrue(namespaceCacheSize == null || namespaceCacheSize > 0, String.format("The namespace cache size for %s repositories must be positive", label));
+            Assert.isTrue(namespaceIdCacheSize == null || namespaceIdCacheSize > 0, String.format("The namespace id cache size for %s repositories must be positive", label));
+            return this;
+        }
+
+        LmdbStoreConfig toStoreConfig() {
+            LmdbStoreConfig config = new LmdbStoreConfig();
+            if (tripleIndexes != null) config.setTripleIndexes(tripleIndexes.trim());
+            if (tripleDbSize != null) config.setTripleDBSize(tripleDbSize.toBytes());
+            if (valueDbSize != null) config.setValueDBSize(valueDbSize.toBytes());
+            if (autoGrow != null) config.setAutoGrow(autoGrow);
+            if (forceSync != null) config.setForceSync(forceSync);
+            if (valueCacheSize != null) config.setValueCacheSize(valueCacheSize);
+            if (valueIdCacheSize != null) config.setValueIDCacheSize(valueIdCacheSize);
+            if (namespaceCacheSize != null) config.setNamespaceCacheSize(namespaceCacheSize);
+            if (namespaceIdCacheSize != null) config.setNamespaceIDCacheSize(namespaceIdCacheSize);
+            return config;
+        }
+    }
+}
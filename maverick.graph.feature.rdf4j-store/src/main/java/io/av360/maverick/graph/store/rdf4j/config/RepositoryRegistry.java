@@ -0,0 +1,317 @@
+package io.av360.maverick.graph.store.rdf4j.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.av360.maverick.graph.store.rdf.LabeledRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.eclipse.rdf4j.repository.Repository;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps track of all initialized repositories.
+ * <p>
+ * The number of open persistent repositories (each one is an LMDB environment with its own memory maps and file handles)
+ * is limited, the least recently used repositories are evicted (as are all repositories which haven't been used for a
+ * while). Evicted repositories are shut down once their last connection has been closed. If a repository is requested
+ * again before, it is revived instead of being opened twice. Callers which obtained a repository before it has been
+ * evicted and shut down are connected to the current repository with the same key (see
+ * {@link LabeledRepository#setResolver(Supplier)}), eviction therefore never fails a request.
+ * <p>
+ * A repository is reset by swapping it with a new, empty one. The files of persistent repositories are kept in
+ * generations ('lmdb', 'lmdb.1', 'lmdb.2', ...), the new repository is therefore initialized in the next generation while
+ * the previous one is shut down and deleted in the background (once its last connection has been closed).
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.storage.repositories.maxOpen: maximum number of open persistent repositories (default: 100)</li>
+ *     <li>application.storage.repositories.expireAfterAccess: minutes after which unused repositories are closed (default: 60)</li>
+ *     <li>application.storage.repositories.resetTimeout: seconds after which a warning is logged if a reset repository is still in use (default: 60)</li>
+ * </ul>
+ */
+@Component
+@Slf4j(topic = "graph.repository.config")
+public class RepositoryRegistry implements DisposableBean {
+
+    private static final Pattern GENERATION = Pattern.compile("^(.*)\\.(\\d+)$");
+    /* the files are only walked once within this interval, no matter how often the metrics are scraped */
+    private static final long MAPPED_BYTES_INTERVAL = TimeUnit.SECONDS.toNanos(60);
+
+    private final Cache<String, LabeledRepository> repositories;
+    private final Map<String, LabeledRepository> retired;
+    private final Map<Path, Integer> generations;
+    private final AtomicInteger pendingResets;
+    private final AtomicLong mappedBytesUpdated;
+    private volatile long mappedBytes;
+    private final List<Consumer<Repository>> removalListeners;
+    private final long resetTimeout;
+    private volatile boolean destroyed;
+
+
+    public RepositoryRegistry(@Value("${application.storage.repositories.maxOpen:100}") long maxOpen,
+                              @Value("${application.storage.repositories.expireAfterAccess:60}") long expireAfterAccess,
+                              @Value("${application.storage.repositories.resetTimeout:60}") long resetTimeout,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.retired = new ConcurrentHashMap<>();
+        this.generations = new ConcurrentHashMap<>();
+        this.pendingResets = new AtomicInteger();
+        this.mappedBytesUpdated = new AtomicLong(System.nanoTime() - MAPPED_BYTES_INTERVAL);
+        this.removalListeners = new CopyOnWriteArrayList<>();
+        this.resetTimeout = resetTimeout;
+        this.repositories = Caffeine.newBuilder()
+                .maximumWeight(maxOpen)
+                // volatile repositories don't count, they would lose their content when evicted
+                .weigher((String key, LabeledRepository repository) -> repository.getDataDir() != null ? 1 : 0)
+                .expireAfterAccess(expireAfterAccess, TimeUnit.MINUTES)
+                .evictionListener(this::onEviction)
+                .build();
+
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    /**
+     * Returns the repository for the given key, initializes it with the supplier if required.
+     */
+    public LabeledRepository get(String key, Supplier<LabeledRepository> supplier) {
+        LabeledRepository repository;
+        while ((repository = this.repositories.get(key, k -> this.open(k, supplier))).isClosed() || repository.isSuperseded()) {
+            // the repository is evicted or reset concurrently (it is still in the cache while it is shut down or replaced)
+            this.repositories.asMap().remove(key, repository);
+        }
+        return repository;
+    }
+
+    /**
+     * The listener is called whenever a repository is evicted or reset, to drop everything which is kept in memory for
+     * the repository.
+     */
+    public void addRemovalListener(Consumer<Repository> listener) {
+        this.removalListeners.add(listener);
+    }
+
+    private LabeledRepository open(String key, Supplier<LabeledRepository> supplier) {
+        LabeledRepository previous = this.retired.remove(key);
+        if (previous != null && previous.revive()) {
+            log.debug("(Store) Reviving retired repository '{}'", key);
+            return previous;
+        }
+
+        LabeledRepository repository = supplier.get();
+        repository.setResolver(() -> this.destroyed ? null : this.get(key, supplier));
+        repository.whenClosed(() -> this.retired.remove(key, repository));
+        return repository;
+    }
+
+    /**
+     * Resolves the directory of the current generation of a persistent repository. Directories of previous generations
+     * (left over if the application was stopped while deleting them) are removed.
+     *
+     * @param path the directory of the first generation
+     */
+    public Path resolvePath(Path path) {
+        int generation = this.generations.computeIfAbsent(path, this::findGeneration);
+        return generation == 0 ? path : path.resolveSibling(path.getFileName() + "." + generation);
+    }
+
+    /**
+     * Replaces the repository with a new, empty one. The next request initializes the new repository, and new connections
+     * to the previous repository (e.g. of queued write operations) are opened on the new one as well. The previous
+     * repository is shut down once the connections which are still open (e.g. of running exports) have been closed, its
+     * files are deleted afterwards. A warning is logged if this takes longer than the timeout configured with
+     * 'application.storage.repositories.resetTimeout' (in seconds).
+     *
+     * @return completes once the previous repository has been shut down and deleted
+     */
+    public CompletableFuture<Void> reset(Repository repository) {
+        Assert.isInstanceOf(LabeledRepository.class, repository, "Only registered repositories can be reset");
+        LabeledRepository labeled = (LabeledRepository) repository;
+
+        Optional<String> key = Stream.concat(this.repositories.asMap().entrySet().stream(), this.retired.entrySet().stream())
+                .filter(entry -> entry.getValue() == labeled)
+                .map(Map.Entry::getKey)
+                .findFirst();
+        Assert.isTrue(key.isPresent(), "Repository '" + repository + "' is not registered");
+
+        File dataDir = labeled.getDataDir();
+        if (dataDir != null) {
+            Path first = this.firstGeneration(dataDir.toPath());
+            this.generations.compute(first, (path, generation) -> (generation != null ? generation : this.findGeneration(path)) + 1);
+        }
+
+        log.info("(Store) Resetting repository '{}'", key.get());
+        this.pendingResets.incrementAndGet();
+        CompletableFuture<Void> cleanup = new CompletableFuture<>();
+        labeled.whenClosed(() -> CompletableFuture.runAsync(() -> {
+            if (dataDir != null && !FileSystemUtils.deleteRecursively(dataDir) && dataDir.exists()) {
+                log.warn("(Store) Failed to delete files of repository '{}' in path '{}'", key.get(), dataDir);
+            }
+            log.debug("(Store) Previous repository '{}' has been removed", key.get());
+            this.pendingResets.decrementAndGet();
+            cleanup.complete(null);
+        }));
+        // superseded before it is removed, no connection is opened on it in the meantime
+        labeled.supersede();
+        this.repositories.asMap().remove(key.get(), labeled);
+        this.retired.remove(key.get(), labeled);
+        this.removed(labeled);
+
+        CompletableFuture.delayedExecutor(this.resetTimeout, TimeUnit.SECONDS).execute(() -> {
+            if (labeled.isClosed()) return;
+            log.warn("(Store) Previous repository '{}' has still {} open connections {} seconds after the reset.", key.get(), labeled.getOpenConnections(), this.resetTimeout);
+        });
+        return cleanup;
+    }
+
+    /**
+     * @return the number of previous repositories which have been reset, but not removed yet
+     */
+    public int getPendingResets() {
+        return this.pendingResets.get();
+    }
+
+    /**
+     * @return the number of repositories which are open (including retired repositories with open connections)
+     */
+    public long getOpenRepositories() {
+        return this.repositories.estimatedSize() + this.retired.size();
+    }
+
+    /**
+     * @return the total size of all files of open persistent repositories (which are mapped into memory by LMDB), the
+     * size is determined at most once a minute (concurrent callers get the previous size meanwhile)
+     */
+    public long getMappedBytes() {
+        long updated = this.mappedBytesUpdated.get();
+        long now = System.nanoTime();
+        if (now - updated >= MAPPED_BYTES_INTERVAL && this.mappedBytesUpdated.compareAndSet(updated, now)) {
+            this.mappedBytes = this.computeMappedBytes();
+        }
+        return this.mappedBytes;
+    }
+
+    private long computeMappedBytes() {
+        return Stream.concat(this.repositories.asMap().values().stream(), this.retired.values().stream())
+                .filter(repository -> !repository.isClosed())
+                .map(LabeledRepository::getDataDir)
+                .filter(dir -> dir != null && dir.exists())
+                .mapToLong(this::sizeOf)
+                .sum();
+    }
+
+    private void onEviction(@Nullable String key, @Nullable LabeledRepository repository, RemovalCause cause) {
+        if (key == null || repository == null) return;
+
+        log.debug("(Store) Evicting repository '{}' ({})", key, cause);
+        this.retired.put(key, repository);
+        repository.retire();
+        this.removed(repository);
+    }
+
+    private void removed(LabeledRepository repository) {
+        this.removalListeners.forEach(listener -> {
+            try {
+                listener.accept(repository);
+            } catch (Exception e) {
+                log.warn("(Store) Failed to notify removal of repository '{}'", repository, e);
+            }
+        });
+    }
+
+    private Path firstGeneration(Path path) {
+        Matcher matcher = GENERATION.matcher(path.getFileName().toString());
+        return matcher.matches() ? path.resolveSibling(matcher.group(1)) : path;
+    }
+
+    private int findGeneration(Path path) {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent == null || !Files.isDirectory(parent)) return 0;
+
+        String name = path.getFileName().toString();
+        try (Stream<Path> siblings = Files.list(parent)) {
+            TreeMap<Integer, Path> existing = new TreeMap<>();
+            siblings.forEach(sibling -> {
+                String siblingName = sibling.getFileName().toString();
+                Matcher matcher = GENERATION.matcher(siblingName);
+                if (siblingName.equals(name)) existing.put(0, sibling);
+                else if (matcher.matches() && matcher.group(1).equals(name)) existing.put(Integer.parseInt(matcher.group(2)), sibling);
+            });
+            if (existing.isEmpty()) return 0;
+
+            int current = existing.lastKey();
+            existing.forEach((generation, dir) -> {
+                if (generation == current) return;
+                log.info("(Store) Removing previous generation of repository in path '{}'", dir);
+                FileSystemUtils.deleteRecursively(dir.toFile());
+            });
+            return current;
+        } catch (IOException e) {
+            log.warn("Failed to resolve generation of repository in path '{}'", path, e);
+            return 0;
+        }
+    }
+
+    private long sizeOf(File dir) {
+        try (Stream<Path> files = Files.walk(dir.toPath())) {
+            return files.filter(Files::isRegularFile).mapToLong(path -> {
+                try {
+                    return Files.size(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (IOException | UncheckedIOException e) {
+            log.trace("Failed to determine size of repository in path '{}'", dir, e);
+            return 0;
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("graph.store.repositories.open", this, RepositoryRegistry::getOpenRepositories)
+                .description("Open repositories")
+                .register(registry);
+        Gauge.builder("graph.store.repositories.resetting", this, RepositoryRegistry::getPendingResets)
+                .description("Repositories which have been reset, but are not removed yet")
+                .register(registry);
+        Gauge.builder("graph.store.repositories.mapped", this, RepositoryRegistry::getMappedBytes)
+                .description("Size of the files of all open persistent repositories")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        this.destroyed = true;
+        this.repositories.asMap().values().forEach(LabeledRepository::retire);
+        this.retired.values().forEach(LabeledRepository::retire);
+        this.repositories.invalidateAll();
+    }
+}
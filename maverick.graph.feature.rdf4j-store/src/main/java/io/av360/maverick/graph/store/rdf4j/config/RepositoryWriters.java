@@ -0,0 +1,92 @@
+package io.av360.maverick.graph.store.rdf4j.config;
+
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.store.rdf.WritePriority;
+import io.av360.maverick.graph.store.rdf4j.repository.util.RepositoryWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.repository.Repository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the single writer for each repository, all write operations on a repository are committed through it.
+ * <p>
+ * The writers are kept by the label of the repository, a repository which has been replaced (e.g. reset, or evicted and
+ * opened again) is therefore still written by the same writer. Its connections are opened on the current repository
+ * (see {@link io.av360.maverick.graph.store.rdf.LabeledRepository}), write operations queued before a reset are
+ * therefore never committed into the previous repository once it has been replaced.
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.storage.commit.window: milliseconds to wait for further write operations before a group is committed (default: 0)</li>
+ *     <li>application.storage.commit.maxGroupSize: maximum number of write operations committed together (default: 100)</li>
+ *     <li>application.storage.commit.capacity: maximum number of pending write operations per repository (default: 10000)</li>
+ * </ul>
+ */
+@Component
+@Slf4j(topic = "graph.repository.config")
+public class RepositoryWriters {
+
+    private final StoreScheduler storeScheduler;
+    private final long window;
+    private final int maxGroupSize;
+    private final int capacity;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RepositoryWriter> writers;
+
+    public RepositoryWriters(StoreScheduler storeScheduler,
+                             @Value("${application.storage.commit.window:0}") long window,
+                             @Value("${application.storage.commit.maxGroupSize:100}") int maxGroupSize,
+                             @Value("${application.storage.commit.capacity:10000}") int capacity,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this.storeScheduler = storeScheduler;
+        this.window = window;
+        this.maxGroupSize = maxGroupSize;
+        this.capacity = capacity;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.writers = new ConcurrentHashMap<>();
+
+        Gauge.builder("graph.store.writer.pending", this, RepositoryWriters::getPending)
+                .description("Pending write operations of all repositories")
+                .register(this.meterRegistry);
+    }
+
+    /**
+     * @return the writer for the given repository
+     */
+    public RepositoryWriter get(Repository repository, RepositoryType repositoryType) {
+        return this.writers.computeIfAbsent(repository.toString(), label -> {
+            log.trace("(Store) Initializing writer for repository '{}'", label);
+            return new RepositoryWriter(repository, this.storeScheduler.getScheduler(), this.window, this.maxGroupSize, this.capacity, this.buildTimers(repositoryType));
+        });
+    }
+
+    /**
+     * @return the number of pending write operations of all repositories
+     */
+    public long getPending() {
+        return this.writers.values().stream().mapToLong(RepositoryWriter::getPending).sum();
+    }
+
+    private Map<WritePriority, Timer> buildTimers(RepositoryType repositoryType) {
+        Map<WritePriority, Timer> timers = new EnumMap<>(WritePriority.class);
+        for (WritePriority priority : WritePriority.values()) {
+            timers.put(priority, Timer.builder("graph.store.writer.latency")
+                    .description("Time write operations are waiting to be committed")
+                    .tag("type", repositoryType.name().toLowerCase())
+                    .tag("priority", priority.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(this.meterRegistry));
+        }
+        return timers;
+    }
+}
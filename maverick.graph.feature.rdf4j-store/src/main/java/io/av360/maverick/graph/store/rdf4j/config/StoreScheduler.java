@@ -0,0 +1,186 @@
+package io.av360.maverick.graph.store.rdf4j.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the scheduler for all blocking calls into the RDF4J repositories, which keeps them away from the event loop.
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.storage.executor.type: either 'bounded-elastic' (default) or 'virtual'</li>
+ *     <li>application.storage.executor.threads: maximum number of threads for 'bounded-elastic' (default: 10 * cores)</li>
+ *     <li>application.storage.executor.queue: maximum number of waiting tasks for 'bounded-elastic' (default: 100000)</li>
+ *     <li>application.storage.executor.ttl: seconds after which idle threads are removed (default: 60)</li>
+ *     <li>application.storage.executor.exports: maximum number of concurrently running exports (default: number of cores)</li>
+ * </ul>
+ * Virtual threads require a runtime supporting them, otherwise we fall back to 'bounded-elastic'.
+ * <p>
+ * Exports keep their connection (and thread) while the client is downloading, they therefore run on a separate
+ * scheduler. Further exports wait for a free thread, they never occupy the threads of the store.
+ */
+@Component
+@Slf4j(topic = "graph.repository.config")
+public class StoreScheduler implements DisposableBean {
+
+    private final ExecutorService executor;
+    private final Scheduler scheduler;
+    private final Scheduler exportScheduler;
+    private final AtomicInteger queued;
+    private final AtomicInteger active;
+
+    public StoreScheduler(@Value("${application.storage.executor.type:bounded-elastic}") String type,
+                          @Value("${application.storage.executor.threads:#{null}}") Integer threads,
+                          @Value("${application.storage.executor.queue:100000}") int queueSize,
+                          @Value("${application.storage.executor.ttl:60}") int ttl,
+                          @Value("${application.storage.executor.exports:#{null}}") Integer exports,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.queued = new AtomicInteger();
+        this.active = new AtomicInteger();
+
+        ExecutorService virtual = "virtual".equalsIgnoreCase(type) ? this.buildVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            log.info("(Store) Running repository operations on virtual threads");
+            this.executor = virtual;
+        } else {
+            int maxThreads = threads != null ? threads : Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+            log.info("(Store) Running repository operations on up to {} threads with a queue of {} tasks", maxThreads, queueSize);
+
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, ttl, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueSize), this.threadFactory());
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        }
+
+        this.scheduler = Schedulers.fromExecutorService(new InstrumentedExecutor(this.executor), "store");
+
+        int exportThreads = exports != null ? exports : Runtime.getRuntime().availableProcessors();
+        this.exportScheduler = Schedulers.newBoundedElastic(exportThreads, queueSize, "export", ttl, true);
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    public Scheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * @return the scheduler for writing exports, which block while waiting for the client
+     */
+    public Scheduler getExportScheduler() {
+        return this.exportScheduler;
+    }
+
+    /**
+     * @return the number of tasks which have been submitted, but are not running yet
+     */
+    public int getQueueDepth() {
+        return this.queued.get();
+    }
+
+    /**
+     * @return the number of tasks currently running
+     */
+    public int getActiveTasks() {
+        return this.active.get();
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("graph.store.executor.queued", this, StoreScheduler::getQueueDepth)
+                .description("Repository operations waiting for execution")
+                .register(registry);
+        Gauge.builder("graph.store.executor.active", this, StoreScheduler::getActiveTasks)
+                .description("Repository operations currently running")
+                .register(registry);
+    }
+
+    private ExecutorService buildVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            log.warn("(Store) Virtual threads are not supported by this runtime, falling back to bounded-elastic executor");
+            return null;
+        }
+    }
+
+    private ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "store-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.dispose();
+        this.exportScheduler.dispose();
+        this.executor.shutdown();
+    }
+
+
+    /**
+     * Keeps track of waiting and running tasks.
+     */
+    private class InstrumentedExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+
+        InstrumentedExecutor(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            queued.incrementAndGet();
+            try {
+                delegate.execute(() -> {
+                    queued.decrementAndGet();
+                    active.incrementAndGet();
+                    try {
+                        command.run();
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
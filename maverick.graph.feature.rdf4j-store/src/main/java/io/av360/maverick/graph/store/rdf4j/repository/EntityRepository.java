@@ -1,63 +1,182 @@
 package io.av360.maverick.graph.store.rdf4j.repository;
 
 import io.av360.maverick.graph.model.enums.Activity;
+import io.av360.maverick.graph.model.vocabulary.Transactions;
 import io.av360.maverick.graph.store.EntityStore;
 import io.av360.maverick.graph.store.RepositoryType;
 import io.av360.maverick.graph.store.rdf.models.Entity;
 import io.av360.maverick.graph.store.rdf.models.Transaction;
 import io.av360.maverick.graph.store.rdf4j.repository.util.AbstractRepository;
+import io.av360.maverick.graph.store.rdf4j.repository.util.EntityCache;
+import io.av360.maverick.graph.store.rdf4j.repository.util.EntityIdentifiers;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
-import java.util.Collection;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
 public class EntityRepository extends AbstractRepository implements EntityStore {
 
 
+    private static final Model EMPTY = new LinkedHashModel().unmodifiable();
+
+    @org.springframework.beans.factory.annotation.Value("${application.storage.entities.embedDepth:1}")
+    private int embedDepth;
+
+    private EntityCache entityCache;
+    private EntityIdentifiers entityIdentifiers;
+
     public EntityRepository() {
         super(RepositoryType.ENTITIES);
     }
 
+    @Autowired
+    private void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    @Autowired
+    private void setEntityIdentifiers(EntityIdentifiers entityIdentifiers) {
+        this.entityIdentifiers = entityIdentifiers;
+    }
+
 
     public Mono<Entity> getEntity(Resource id, Authentication authentication, GrantedAuthority requiredAuthority) {
-        try (RepositoryConnection connection = getConnection(authentication, requiredAuthority)) {
-            log.trace("(Store) Loading entity with id '{}' from repository {}", id, connection.getRepository().toString());
+        return this.getEntities(List.of(id), authentication, requiredAuthority)
+                .next()
+                .doOnSuccess(entity -> {
+                    if (!log.isDebugEnabled()) return;
+                    if (entity == null) log.debug("(Store) Found no statements for IRI: <{}>.", id);
+                    else log.debug("(Store) Loaded {} statements for entity with IRI: <{}>.", entity.getModel().size(), id);
+                });
+    }
 
-            RepositoryResult<Statement> statements = connection.getStatements(id, null, null);
-            if (!statements.hasNext()) {
-                if (log.isDebugEnabled()) log.debug("(Store) Found no statements for IRI: <{}>.", id);
-                return Mono.empty();
-            }
+    @Override
+    public Flux<Entity> getEntities(Collection<? extends Resource> ids, Authentication authentication, GrantedAuthority requiredAuthority) {
+        if (ids.isEmpty()) return Flux.empty();
+
+        return Mono.fromCallable(() -> this.getRepository(authentication, getRepositoryType(), requiredAuthority))
+                .flatMapMany(repository -> {
+                    Map<Resource, Entity> entities = new HashMap<>();
+                    ids.forEach(id -> this.entityCache.get(repository, id).ifPresent(entity -> entities.put(id, entity)));
+
+                    List<Resource> missing = ids.stream().filter(id -> !entities.containsKey(id)).distinct().map(Resource.class::cast).toList();
+                    if (missing.isEmpty()) return Flux.fromIterable(ids).map(entities::get);
+
+                    long generation = this.entityCache.getGeneration(repository);
+                    return this.applyWithConnection(authentication, requiredAuthority, connection -> {
+                                log.trace("(Store) Loading {} entities from repository {}", missing.size(), connection.getRepository().toString());
+                                return this.loadEntities(connection, missing);
+                            })
+                            .flatMapIterable(loaded -> {
+                                loaded.forEach((id, entity) -> this.entityCache.put(repository, id, entity, generation));
+                                entities.putAll(loaded);
+                                return ids.stream().map(entities::get).filter(Objects::nonNull).toList();
+                            });
+                })
+                .doOnError(e -> log.error("Unknown error while running query", e));
+    }
 
+    @Override
+    public Mono<String> getVersion(Resource id, Authentication authentication, GrantedAuthority requiredAuthority) {
+        return Mono.fromCallable(() -> this.getRepository(authentication, getRepositoryType(), requiredAuthority))
+                .flatMap(repository -> Mono.justOrEmpty(this.entityCache.getVersion(repository, id)))
+                .switchIfEmpty(Mono.defer(() -> this.getEntities(List.of(id), authentication, requiredAuthority).next()
+                        .map(entity -> EntityCache.version(entity.getModel()))));
+    }
 
-            Entity entity = new Entity().withResult(statements);
+    @Override
+    public Flux<IRI> listEntityIdentifiers(int limit, @Nullable IRI after, Authentication authentication, GrantedAuthority requiredAuthority) {
+        return this.applyWithConnection(authentication, requiredAuthority, connection -> this.entityIdentifiers.list(connection, limit, after))
+                .flatMapIterable(ids -> ids);
+    }
 
-            // embedded level 1
-            entity.getModel().objects().stream()
-                    .filter(Value::isIRI)
-                    .map(value -> connection.getStatements((IRI) value, null, null))
-                    .toList()
-                    .forEach(entity::withResult);
+    @Override
+    protected void onCommit(Repository repository, Transaction transaction) {
+        // the subjects of all committed statements, the cached entities (and their versions) comprising them are outdated
+        Set<Value> resources = new HashSet<>(transaction.listModifiedResources(Activity.values()));
+        Stream.of(Transactions.GRAPH_CREATED, Transactions.GRAPH_DELETED)
+                .flatMap(context -> transaction.getModel().filter(null, null, null, context).stream())
+                .forEach(statement -> resources.add(statement.getSubject()));
+        this.entityCache.invalidate(repository, resources);
+        this.entityIdentifiers.committed(repository, transaction.getModel());
+    }
 
+    @Override
+    protected void onModified(Repository repository) {
+        this.entityCache.invalidateAll(repository);
+        this.entityIdentifiers.modified(repository);
+    }
 
-            if (log.isDebugEnabled())
-                log.debug("(Store) Loaded {} statements for entity with IRI: <{}>.", entity.getModel().size(), id);
-            return Mono.just(entity);
+    /**
+     * Loads the entities with the given identifiers, including their embedded objects (objects identified by an IRI) up
+     * to the configured depth. The statements of each level are loaded for all entities at once on the same connection,
+     * and every resource is loaded only once (which also breaks cycles).
+     *
+     * @return the entities in the order of the given identifiers, unknown identifiers are skipped
+     */
+    private Map<Resource, Entity> loadEntities(RepositoryConnection connection, List<? extends Resource> ids) {
+        Map<Resource, Model> loaded = new HashMap<>();
+        this.loadStatements(connection, ids, loaded);
+
+        Collection<? extends Resource> level = ids;
+        for (int depth = 0; depth < this.embedDepth && !level.isEmpty(); depth++) {
+            List<Resource> embedded = this.embeddedObjects(level, loaded).filter(iri -> !loaded.containsKey(iri)).distinct().toList();
+            this.loadStatements(connection, embedded, loaded);
+            level = embedded;
+        }
 
-        } catch (Exception e) {
-            log.error("Unknown error while running query", e);
-            return Mono.error(e);
+        Map<Resource, Entity> entities = new LinkedHashMap<>();
+        for (Resource id : ids) {
+            Model model = loaded.get(id);
+            if (model.isEmpty()) continue;
+
+            Entity entity = new Entity().withStatements(model);
+            Set<Resource> visited = new HashSet<>(Set.of(id));
+            List<Resource> current = List.of(id);
+            for (int depth = 0; depth < this.embedDepth && !current.isEmpty(); depth++) {
+                current = this.embeddedObjects(current, loaded).filter(visited::add).toList();
+                current.forEach(embedded -> entity.withStatements(loaded.getOrDefault(embedded, EMPTY)));
+            }
+            entities.put(id, entity);
+        }
+        return entities;
+    }
+
+    private Stream<Resource> embeddedObjects(Collection<? extends Resource> subjects, Map<Resource, Model> loaded) {
+        return subjects.stream()
+                .flatMap(subject -> loaded.getOrDefault(subject, EMPTY).objects().stream())
+                .filter(Value::isIRI)
+                .map(value -> (Resource) value);
+    }
+
+    /**
+     * Loads the statements of all given subjects into the map, with one lookup in the subject index per subject on the
+     * shared connection (the statements keep their contexts).
+     */
+    private void loadStatements(RepositoryConnection connection, List<? extends Resource> subjects, Map<Resource, Model> loaded) {
+        for (Resource subject : subjects) {
+            Model model = new LinkedHashModel();
+            try (RepositoryResult<Statement> statements = connection.getStatements(subject, null, null)) {
+                statements.forEach(model::add);
+            }
+            loaded.put(subject, model);
         }
     }
 
@@ -92,23 +211,18 @@ public class EntityRepository extends AbstractRepository implements EntityStore
      * @return its type (or empty)
      */
     public Mono<Value> type(Resource identifier, Authentication authentication, GrantedAuthority requiredAuthority) {
-        try (RepositoryConnection connection = getConnection(authentication, requiredAuthority)) {
+        return this.applyWithConnection(authentication, requiredAuthority, connection -> {
             RepositoryResult<Statement> statements = connection.getStatements(identifier, RDF.TYPE, null, false);
 
             Value result = null;
             for (Statement st : statements) {
                 // FIXME: not sure if this is a domain exception (which mean it should not be handled here)
                 if (result != null) {
-                    return Mono.error(new IOException("Duplicate type definitions for resource with identifier " + identifier.stringValue()));
+                    throw new IOException("Duplicate type definitions for resource with identifier " + identifier.stringValue());
                 } else result = st.getObject();
             }
-            if (result == null) return Mono.empty();
-            else return Mono.just(result);
-
-
-        } catch (Exception e) {
-            return Mono.error(e);
-        }
+            return result;
+        });
 
     }
 
@@ -13,6 +13,7 @@ import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.util.Namespaces;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -41,6 +42,11 @@ public class SchemaRepository extends AbstractRepository implements SchemaStore
         return namespaces.stream().filter(ns -> ns.getPrefix().equalsIgnoreCase(prefix)).findFirst().orElseThrow(() -> new UnknownPrefix(prefix)).getName();
     }
 
+    @Override
+    public Set<Namespace> getNamespaces() {
+        return Collections.unmodifiableSet(namespaces);
+    }
+
     @Override
     public ValueFactory getValueFactory() {
         return SimpleValueFactory.getInstance();
@@ -2,31 +2,42 @@ package io.av360.maverick.graph.store.rdf4j.repository.util;
 
 import io.av360.maverick.graph.model.enums.Activity;
 import io.av360.maverick.graph.model.rdf.NamespaceAwareStatement;
-import io.av360.maverick.graph.model.vocabulary.Transactions;
+import io.av360.maverick.graph.model.rdf.ProjectedBindingSet;
 import io.av360.maverick.graph.store.RepositoryBuilder;
 import io.av360.maverick.graph.store.RepositoryType;
 import io.av360.maverick.graph.store.behaviours.ModelUpdates;
 import io.av360.maverick.graph.store.behaviours.RepositoryBehaviour;
 import io.av360.maverick.graph.store.behaviours.Resettable;
 import io.av360.maverick.graph.store.behaviours.Statements;
+import io.av360.maverick.graph.store.rdf.WritePriority;
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferInputStream;
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferOutputStream;
 import io.av360.maverick.graph.store.rdf.helpers.RdfUtils;
+import io.av360.maverick.graph.store.rdf.models.ImportProgress;
 import io.av360.maverick.graph.store.rdf.models.Transaction;
+import io.av360.maverick.graph.model.vocabulary.Transactions;
+import io.av360.maverick.graph.store.rdf4j.config.ChangeJournal;
+import io.av360.maverick.graph.store.rdf4j.config.RepositoryRegistry;
+import io.av360.maverick.graph.store.rdf4j.config.RepositoryWriters;
+import io.av360.maverick.graph.store.rdf4j.config.StoreScheduler;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.model.impl.SimpleNamespace;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.query.*;
+import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.RepositoryResult;
-import org.eclipse.rdf4j.repository.util.RDFInserter;
+import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParser;
 import org.eclipse.rdf4j.rio.RDFParserFactory;
+import org.eclipse.rdf4j.rio.Rio;
 import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -35,20 +46,35 @@ import org.springframework.util.MimeType;
 import org.springframework.web.client.HttpClientErrorException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j(topic = "graph.repository.base")
 public class AbstractRepository implements RepositoryBehaviour, Statements, ModelUpdates, Resettable {
 
+    private static final int IMPORT_PREFETCH = 16;
+    private static final int EXPORT_BUFFER_SIZE = 65536;
+    private static final Set<RDFFormat> EXPORT_FORMATS = Set.of(RDFFormat.NTRIPLES, RDFFormat.NQUADS, RDFFormat.BINARY);
+
     private final RepositoryType repositoryType;
     private RepositoryBuilder repositoryConfiguration;
+    private StoreScheduler storeScheduler;
+    private RepositoryWriters writers;
+    private ParallelLoader parallelLoader;
+    private RepositoryRegistry registry;
+    private ChangeJournal journal;
+
+    @org.springframework.beans.factory.annotation.Value("${application.storage.import.batchSize:10000}")
+    private int importBatchSize;
 
     public AbstractRepository(RepositoryType repositoryType) {
         this.repositoryType = repositoryType;
@@ -69,232 +95,369 @@ public class AbstractRepository implements RepositoryBehaviour, Statements, Mode
         this.repositoryConfiguration = repositoryConfiguration;
     }
 
+    @Override
+    public Scheduler getScheduler() {
+        return this.storeScheduler.getScheduler();
+    }
+
+    @Autowired
+    private void setStoreScheduler(StoreScheduler storeScheduler) {
+        this.storeScheduler = storeScheduler;
+    }
+
+    @Autowired
+    private void setWriters(RepositoryWriters writers) {
+        this.writers = writers;
+    }
+
+    @Autowired
+    private void setParallelLoader(ParallelLoader parallelLoader) {
+        this.parallelLoader = parallelLoader;
+    }
+
+    @Autowired
+    private void setRegistry(RepositoryRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Autowired
+    private void setJournal(ChangeJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Queues the write operation for the single writer of the repository and notifies the subclasses once the
+     * repository has been modified.
+     */
+    protected Mono<Void> writeWithConnection(Authentication authentication, RepositoryType repositoryType, GrantedAuthority requiredAuthority, WriteTask<Void> task) {
+        return Mono.fromCallable(() -> this.getRepository(authentication, repositoryType, requiredAuthority))
+                .flatMap(repository -> this.writers.get(repository, repositoryType).submit(task)
+                        .then(Mono.fromRunnable(() -> this.modified(repository))));
+    }
+
+    protected Mono<Void> writeWithConnection(Authentication authentication, GrantedAuthority requiredAuthority, WriteTask<Void> task) {
+        return this.writeWithConnection(authentication, this.getRepositoryType(), requiredAuthority, task);
+    }
+
 
     public Flux<NamespaceAwareStatement> construct(String query, Authentication authentication, GrantedAuthority requiredAuthority) {
-        return Flux.create(c -> {
-            try (RepositoryConnection connection = getConnection(authentication, requiredAuthority)) {
-                GraphQuery q = connection.prepareGraphQuery(QueryLanguage.SPARQL, query);
-                try (GraphQueryResult result = q.evaluate()) {
-                    Set<Namespace> namespaces = result.getNamespaces().entrySet().stream()
-                            .map(entry -> new SimpleNamespace(entry.getKey(), entry.getValue()))
-                            .collect(Collectors.toSet());
-
-                    result.forEach(statement -> c.next(NamespaceAwareStatement.wrap(statement, namespaces)));
-                } catch (Exception e) {
-                    log.warn("Error while running value query.", e);
-                    c.error(e);
-                }
-            } catch (MalformedQueryException e) {
-                log.warn("Error while parsing query", e);
-                c.error(new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Invalid query"));
-            } catch (Exception e) {
-                log.error("Unknown error while running query", e);
-                c.error(e);
-            } finally {
-                c.complete();
-            }
-        });
+        return this.streamWithConnection(authentication, requiredAuthority, connection -> {
+                    GraphQuery q = connection.prepareGraphQuery(QueryLanguage.SPARQL, query);
+                    GraphQueryResult result = q.evaluate();
+                    try {
+                        Set<Namespace> namespaces = result.getNamespaces().entrySet().stream()
+                                .map(entry -> new SimpleNamespace(entry.getKey(), entry.getValue()))
+                                .collect(Collectors.toSet());
+
+                        return result.stream().map(statement -> NamespaceAwareStatement.wrap(statement, namespaces));
+                    } catch (Exception e) {
+                        result.close();
+                        throw e;
+                    }
+                })
+                .onErrorMap(MalformedQueryException.class, e -> {
+                    log.warn("Error while parsing query", e);
+                    return new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Invalid query");
+                })
+                .doOnError(e -> !(e instanceof HttpClientErrorException), e -> log.error("Unknown error while running query", e));
     }
 
     //TODO: This is a bit of a hack, but it works for now. We should probably use a proper RDF parser
     public Mono<Void> modify(String query, Authentication authentication, GrantedAuthority requiredAuthority) {
-        return Mono.create(c -> {
-            try (RepositoryConnection connection = getConnection(authentication, requiredAuthority)) {
-                Update update = connection.prepareUpdate(QueryLanguage.SPARQL, query);
-                update.execute();
-                c.success();
-            } catch (MalformedQueryException e) {
-                log.warn("Error while parsing query", e);
-                c.error(new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Invalid query"));
-            } catch (Exception e) {
-                log.error("Unknown error while running query", e);
-                c.error(e);
-            }
-        });
+        return this.writeWithConnection(authentication, requiredAuthority, connection -> {
+                    Update update = connection.prepareUpdate(QueryLanguage.SPARQL, query);
+                    update.execute();
+                })
+                .onErrorMap(MalformedQueryException.class, e -> {
+                    log.warn("Error while parsing query", e);
+                    return new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Invalid query");
+                })
+                .doOnError(e -> !(e instanceof HttpClientErrorException), e -> log.error("Unknown error while running query", e));
     }
 
     public Flux<BindingSet> query(String query, Authentication authentication, GrantedAuthority requiredAuthority) {
-        return Flux.create(emitter -> {
-            try (RepositoryConnection connection = this.getConnection(authentication, requiredAuthority)) {
-
-                TupleQuery q = connection.prepareTupleQuery(QueryLanguage.SPARQL, query);
-                if (log.isTraceEnabled())
-                    log.trace("Querying repository '{}' with query: {}", connection.getRepository(), query.replace('\n', ' ').trim());
-                try (TupleQueryResult result = q.evaluate()) {
-                    result.stream().forEach(emitter::next);
-                } finally {
-                    emitter.complete();
-                }
-
-            } catch (MalformedQueryException e) {
-                log.warn("Error while parsing query, reason: {}", e.getMessage());
-                emitter.error(e);
-            } catch (Exception e) {
-                log.error("Unknown error while running query", e);
-                emitter.error(e);
-            }
-        });
+        return this.streamWithConnection(authentication, requiredAuthority, connection -> {
+                    TupleQuery q = connection.prepareTupleQuery(QueryLanguage.SPARQL, query);
+                    if (log.isTraceEnabled())
+                        log.trace("Querying repository '{}' with query: {}", connection.getRepository(), query.replace('\n', ' ').trim());
+                    // the solutions keep the projection, which includes the bindings which are unbound in a solution
+                    TupleQueryResult result = q.evaluate();
+                    List<String> projection = result.getBindingNames();
+                    return result.stream().map(bindingSet -> (BindingSet) ProjectedBindingSet.wrap(bindingSet, projection));
+                })
+                .doOnError(MalformedQueryException.class, e -> log.warn("Error while parsing query, reason: {}", e.getMessage()))
+                .doOnError(e -> !(e instanceof MalformedQueryException), e -> log.error("Unknown error while running query", e));
     }
 
+    /**
+     * Swaps the repository with a new, empty one (see {@link RepositoryRegistry#reset(Repository)}), which doesn't
+     * depend on the size of the repository. The previous repository is removed in the background.
+     */
     @Override
     public Mono<Void> reset(Authentication authentication, RepositoryType repositoryType, GrantedAuthority requiredAuthority) {
-        try (RepositoryConnection connection = getConnection(authentication, repositoryType, requiredAuthority)) {
-            if (log.isTraceEnabled())
-                log.trace("Removing all statements from repository '{}'", connection.getRepository());
-            RepositoryResult<Statement> statements = connection.getStatements(null, null, null);
-            connection.remove(statements);
-            return Mono.empty();
-        } catch (Exception e) {
-            return Mono.error(e);
-        }
+        return Mono.fromCallable(() -> this.getRepository(authentication, repositoryType, requiredAuthority))
+                .doOnNext(repository -> {
+                    if (log.isTraceEnabled())
+                        log.trace("Replacing repository '{}' with an empty repository", repository);
+
+                    this.registry.reset(repository);
+                    this.modified(repository);
+                })
+                .then();
     }
 
 
     @Override
     public Mono<Void> delete(Model model, Authentication authentication, GrantedAuthority requiredAuthority) {
-        return Mono.create(sink -> {
-            try (RepositoryConnection connection = getConnection(authentication, requiredAuthority)) {
-                try {
-                    Resource[] contexts = model.contexts().toArray(new Resource[0]);
-                    connection.add(model, contexts);
-                    connection.commit();
-                    sink.success();
-                } catch (Exception e) {
-                    connection.rollback();
-                    sink.error(e);
-                }
-            } catch (RepositoryException | IOException e) {
-                sink.error(e);
-            }
+        return this.writeWithConnection(authentication, requiredAuthority, connection -> {
+            Resource[] contexts = model.contexts().toArray(new Resource[0]);
+            connection.add(model, contexts);
         });
     }
 
+    /**
+     * Parses the upload while it is received (only a few buffers are kept in memory) and commits the statements in
+     * batches of 'application.storage.import.batchSize' statements (default: 10000).
+     */
     @Override
-    public Mono<Void> importStatements(Publisher<DataBuffer> bytesPublisher, String mimetype, Authentication authentication, GrantedAuthority requiredAuthority) {
+    public Mono<ImportProgress> importStatements(Publisher<DataBuffer> bytesPublisher, String mimetype, ImportProgress progress, Authentication authentication, GrantedAuthority requiredAuthority) {
 
         Optional<RDFParserFactory> parserFactory = RdfUtils.getParserFactory(MimeType.valueOf(mimetype));
         Assert.isTrue(parserFactory.isPresent(), "Unsupported mimetype for parsing the file.");
 
-        RDFParser parser = parserFactory.orElseThrow().getParser();
-
-        return DataBufferUtils.join(bytesPublisher)
-                .flatMap(dataBuffer -> {
-                    try (RepositoryConnection connection = getConnection(authentication, requiredAuthority)) {
-                        RDFInserter rdfInserter = new RDFInserter(connection);
-                        parser.setRDFHandler(rdfInserter);
-                        try (InputStream bais = dataBuffer.asInputStream(true)) {
-                            parser.parse(bais);
-                        } catch (Exception e) {
-                            return Mono.error(e);
-                        }
-                        return Mono.empty();
+        return Mono.fromCallable(() -> this.getRepository(authentication, getRepositoryType(), requiredAuthority))
+                .flatMap(repository -> Mono.deferContextual(context -> Mono.fromCallable(() -> {
+                    RepositoryWriter writer = this.writers.get(repository, getRepositoryType());
+                    progress.start();
+
+                    try (DataBufferInputStream input = new DataBufferInputStream(bytesPublisher, IMPORT_PREFETCH)) {
+                        RDFParser parser = parserFactory.orElseThrow().getParser();
+                        parser.setRDFHandler(new BatchedImporter(writer, WritePriority.from(context), this.importBatchSize, progress, () -> this.modified(repository)));
+                        parser.parse(input);
                     } catch (Exception e) {
-                        return Mono.error(e);
+                        log.warn("Import into repository '{}' failed after {}, resume with offset {}", repository, progress, progress.getOffset());
+                        throw e;
                     }
-                })
+
+                    log.debug("Import into repository '{}' completed: {}", repository, progress);
+                    return progress;
+                })))
+                // parsing is blocking, but it shouldn't occupy the threads of the store
+                .subscribeOn(Schedulers.boundedElastic())
                 .doOnError(throwable -> log.error("Error while importing statements: {}", throwable.getMessage()))
                 .doOnSubscribe(subscription -> {
                     if (log.isTraceEnabled())
                         log.trace("Attempt to import statements into repository '{}'", this.getRepositoryType().name());
-                })
-                .then()
-                ;
+                });
 
     }
 
-    public Mono<Boolean> exists(Resource subj, Authentication authentication, GrantedAuthority requiredAuthority) throws IOException {
-        try (RepositoryConnection connection = getConnection(authentication, requiredAuthority)) {
-            return Mono.just(connection.hasStatement(subj, RDF.TYPE, null, false));
-        }
+    @Override
+    public Mono<ImportProgress> bulkImportStatements(Publisher<DataBuffer> bytesPublisher, String mimetype, ImportProgress progress, boolean initial, Authentication authentication, GrantedAuthority requiredAuthority) {
+        Optional<RDFParserFactory> parserFactory = RdfUtils.getParserFactory(MimeType.valueOf(mimetype));
+        Assert.isTrue(parserFactory.isPresent() && ParallelLoader.SUPPORTED_FORMATS.contains(parserFactory.get().getRDFFormat()),
+                "Unsupported mimetype for bulk loading, supported formats are N-Triples and N-Quads.");
+
+        return Mono.fromCallable(() -> this.getRepository(authentication, getRepositoryType(), requiredAuthority))
+                .flatMap(repository -> this.parallelLoader.load(bytesPublisher, parserFactory.get().getRDFFormat(), this.writers.get(repository, getRepositoryType()),
+                        progress, initial, () -> this.modified(repository)))
+                .doOnError(throwable -> log.error("Error while loading statements: {}", throwable.getMessage()))
+                .doOnSubscribe(subscription -> {
+                    if (log.isTraceEnabled())
+                        log.trace("Attempt to bulk load statements into repository '{}'", this.getRepositoryType().name());
+                });
     }
 
+    /**
+     * Writes the statements with a dedicated connection into buffers of the given factory (to avoid copying them into the
+     * response), the writer is blocked until the next buffer has been requested.
+     */
     @Override
-    public Flux<Transaction> commit(Collection<Transaction> transactions, Authentication authentication, GrantedAuthority requiredAuthority) {
-        return Flux.create(c -> {
-            try (RepositoryConnection connection = this.getConnection(authentication, requiredAuthority)) {
+    public Flux<DataBuffer> exportStatements(RDFFormat format, boolean gzip, DataBufferFactory bufferFactory, Authentication authentication, GrantedAuthority requiredAuthority) {
+        Assert.isTrue(EXPORT_FORMATS.contains(format), "Unsupported format for exporting statements, supported formats are N-Triples, N-Quads and BinaryRDF.");
+
+        return Mono.fromCallable(() -> this.getRepository(authentication, getRepositoryType(), requiredAuthority))
+                .flatMapMany(repository -> DataBufferOutputStream.publish(stream -> {
+                    try (RepositoryConnection connection = repository.getConnection();
+                         OutputStream output = gzip ? new GZIPOutputStream(stream, EXPORT_BUFFER_SIZE) : stream) {
+                        connection.export(Rio.createWriter(format, output));
+                    }
+                    log.debug("Exported {} bytes from repository '{}'", stream.getBytesWritten(), repository);
+                }, bufferFactory, EXPORT_BUFFER_SIZE, this.storeScheduler.getExportScheduler()))
+                .doOnError(throwable -> log.error("Error while exporting statements: {}", throwable.getMessage()))
+                .doOnSubscribe(subscription -> {
+                    if (log.isTraceEnabled())
+                        log.trace("Attempt to export statements from repository '{}' as {}", this.getRepositoryType().name(), format.getName());
+                });
+    }
 
+    @Override
+    public Mono<Long> getChangeSequence(Authentication authentication, GrantedAuthority requiredAuthority) {
+        return Mono.fromCallable(() -> this.journal.getSequence(this.getRepository(authentication, getRepositoryType(), requiredAuthority)));
+    }
 
-                log.trace("Committing transaction to repository '{}'", connection.getRepository().toString());
+    /**
+     * Streams the recorded transactions from the journal of the repository (see {@link ChangeJournal}), the journal is
+     * checked before the writer starts (to fail the request if the changes are not available anymore).
+     */
+    @Override
+    public Flux<DataBuffer> exportChanges(long since, long until, boolean gzip, DataBufferFactory bufferFactory, Authentication authentication, GrantedAuthority requiredAuthority) {
+        return Mono.fromCallable(() -> {
+                    Repository repository = this.getRepository(authentication, getRepositoryType(), requiredAuthority);
+                    long sequence = this.journal.getSequence(repository);
+                    Assert.isTrue(since <= until && until <= sequence, "Invalid range of changes, the current sequence is " + sequence);
+                    this.journal.assertAvailable(repository, since);
+                    return repository;
+                })
+                .flatMapMany(repository -> DataBufferOutputStream.publish(stream -> {
+                    try (OutputStream output = gzip ? new GZIPOutputStream(stream, EXPORT_BUFFER_SIZE) : stream) {
+                        this.journal.read(repository, since, until, output);
+                    }
+                    log.debug("Exported changes {} to {} ({} bytes) from repository '{}'", since, until, stream.getBytesWritten(), repository);
+                }, bufferFactory, EXPORT_BUFFER_SIZE, this.storeScheduler.getExportScheduler()))
+                .doOnSubscribe(subscription -> {
+                    if (log.isTraceEnabled())
+                        log.trace("Attempt to export changes after sequence {} from repository '{}'", since, this.getRepositoryType().name());
+                });
+    }
 
-                transactions.forEach(trx -> {
-                    // FIXME: the approach based on the context works only as long as the statements in the graph are all within the global context only
-                    // with this approach, we cannot insert a statement to a context (since it is already in GRAPH_CREATED), every st can only be in one context
-                    Model insertModel = trx.getModel().filter(null, null, null, Transactions.GRAPH_CREATED);
-                    Model removeModel = trx.getModel().filter(null, null, null, Transactions.GRAPH_DELETED);
+    public Mono<Boolean> exists(Resource subj, Authentication authentication, GrantedAuthority requiredAuthority) throws IOException {
+        return this.applyWithConnection(authentication, requiredAuthority, connection -> connection.hasStatement(subj, RDF.TYPE, null, false));
+    }
 
-                    // we have to get rid of the context
-                    SimpleValueFactory vf = SimpleValueFactory.getInstance();
-                    List<Statement> insertStatements = insertModel.stream().map(s -> vf.createStatement(s.getSubject(), s.getPredicate(), s.getObject())).toList();
-                    List<Statement> removeStatements = removeModel.stream().map(s -> vf.createStatement(s.getSubject(), s.getPredicate(), s.getObject())).toList();
+    /**
+     * Commits the transactions through the writer of the repository, the transactions are therefore probably committed
+     * together with concurrent transactions. Failed transactions are marked as such.
+     */
+    @Override
+    public Flux<Transaction> commit(Collection<Transaction> transactions, Authentication authentication, GrantedAuthority requiredAuthority) {
+        return Mono.fromCallable(() -> this.getRepository(authentication, getRepositoryType(), requiredAuthority))
+                .flatMapMany(repository -> {
+                    log.trace("Committing {} transaction(s) to repository '{}'", transactions.size(), repository.toString());
+
+                    RepositoryWriter writer = this.writers.get(repository, getRepositoryType());
+                    return Flux.fromIterable(transactions).flatMapSequential(trx -> {
+                        TransactionWrite write = new TransactionWrite(repository, trx);
+                        // the subclasses are notified in the order of the commits, but not by the writer
+                        return writer.submit(write).doOnNext(committed -> write.notifyCommitted());
+                    });
+                })
+                .doOnError(e -> log.error("Failed to commit transactions", e));
+    }
 
-                    try {
-                        connection.begin();
-                        connection.add(insertStatements);
-                        connection.remove(removeStatements);
-                        connection.commit();
 
-                        trx.setCompleted();
+    @Override
+    public Mono<Void> insert(Model model, Authentication authentication, GrantedAuthority requiredAuthority) {
 
-                        log.trace("Transaction completed with {} inserted statements and {} removed statements in repository '{}'.", insertModel.size(), removeModel.size(), connection.getRepository());
-                        c.next(trx);
-                    } catch (Exception e) {
-                        log.error("Failed to complete transaction for repository '{}'.", connection.getRepository(), e);
-                        log.trace("Insert Statements in this transaction: \n {}", insertModel);
-                        log.trace("Remove Statements in this transaction: \n {}", removeModel);
+        return this.writeWithConnection(authentication, requiredAuthority, connection -> {
+            if (log.isTraceEnabled())
+                log.trace("Inserting model without transaction to repository '{}'", connection.getRepository().toString());
 
-                        connection.rollback();
-                        trx.setFailed(e.getMessage());
-                        c.next(trx);
-                    }
+            Resource[] contexts = model.contexts().toArray(new Resource[0]);
+            connection.add(model, contexts);
+        });
 
+    }
 
-                });
 
-                c.complete();
-            } catch (Exception e) {
-                log.error("Failed to initialize repository connection");
-                c.error(e);
+    @Override
+    public Mono<List<Statement>> listStatements(Resource value, IRI predicate, Value object, Authentication authentication, GrantedAuthority requiredAuthority) {
+        return this.applyWithConnection(authentication, requiredAuthority, connection -> {
+            if (log.isTraceEnabled())
+                log.trace("Listing all statements with pattern [{},{},{}] from repository '{}'", value, predicate, object, connection.getRepository().toString());
+
+            try (RepositoryResult<Statement> statements = connection.getStatements(value, predicate, object)) {
+                return statements.stream().toList();
             }
         });
+
     }
 
+    /**
+     * Called after a transaction has been committed to the repository, in the order of the commits and before the
+     * caller is notified.
+     */
+    protected void onCommit(Repository repository, Transaction transaction) {
 
-    @Override
-    public Mono<Void> insert(Model model, Authentication authentication, GrantedAuthority requiredAuthority) {
+    }
 
-        try (RepositoryConnection connection = this.getConnection(authentication, requiredAuthority)) {
-            try {
+    /**
+     * Called after the repository has been modified without a transaction (e.g. by an update query or an import).
+     */
+    protected void onModified(Repository repository) {
 
-                if (log.isTraceEnabled())
-                    log.trace("Inserting model without transaction to repository '{}'", connection.getRepository().toString());
+    }
 
-                Resource[] contexts = model.contexts().toArray(new Resource[0]);
-                connection.add(model, contexts);
-                connection.commit();
-                return Mono.empty();
-            } catch (Exception e) {
-                connection.rollback();
-                return Mono.error(e);
-            }
-        } catch (RepositoryException | IOException e) {
-            return Mono.error(e);
-        }
+    /**
+     * The changes are not recorded, the journal is cleared (consumers of the changes have to start with a full export).
+     */
+    private void modified(Repository repository) {
+        this.resetJournal(repository);
+        this.onModified(repository);
+    }
 
+    private void resetJournal(Repository repository) {
+        try {
+            this.journal.reset(repository);
+        } catch (IOException e) {
+            log.warn("Failed to clear the change journal of repository '{}'", repository, e);
+        }
     }
 
+    private class TransactionWrite implements WriteTask<Transaction> {
+        private final Repository repository;
+        private final Transaction transaction;
+        private List<Statement> insertStatements;
+        private List<Statement> removeStatements;
+        private volatile boolean committed;
 
-    @Override
-    public Mono<List<Statement>> listStatements(Resource value, IRI predicate, Value object, Authentication authentication, GrantedAuthority requiredAuthority) {
-        try (RepositoryConnection connection = getConnection(authentication, requiredAuthority)) {
-            if (log.isTraceEnabled())
-                log.trace("Listing all statements with pattern [{},{},{}] from repository '{}'", value, predicate, object, connection.getRepository().toString());
+        TransactionWrite(Repository repository, Transaction transaction) {
+            this.repository = repository;
+            this.transaction = transaction;
+        }
+
+        @Override
+        public void write(RepositoryConnection connection) {
+            // FIXME: the approach based on the context works only as long as the statements in the graph are all within the global context only
+            // with this approach, we cannot insert a statement to a context (since it is already in GRAPH_CREATED), every st can only be in one context
+            ValueFactory vf = SimpleValueFactory.getInstance();
+            insertStatements = transaction.getModel().filter(null, null, null, Transactions.GRAPH_CREATED).stream().map(s -> vf.createStatement(s.getSubject(), s.getPredicate(), s.getObject())).toList();
+            removeStatements = transaction.getModel().filter(null, null, null, Transactions.GRAPH_DELETED).stream().map(s -> vf.createStatement(s.getSubject(), s.getPredicate(), s.getObject())).toList();
+
+            connection.add(insertStatements);
+            connection.remove(removeStatements);
+
+            log.trace("Transaction with {} inserted statements and {} removed statements prepared for repository '{}'.", insertStatements.size(), removeStatements.size(), repository);
+        }
+
+        @Override
+        public Transaction onCommitted() {
+            transaction.setCompleted();
+            try {
+                // called by the single writer in the order of the commits
+                journal.append(repository, transaction.getIdentifier(), insertStatements, removeStatements);
+            } catch (Exception e) {
+                log.warn("Failed to record transaction in the change journal of repository '{}'", repository, e);
+                resetJournal(repository);
+            }
+            this.committed = true;
+            return transaction;
+        }
 
-            List<Statement> statements = connection.getStatements(value, predicate, object).stream().toList();
-            return Mono.just(statements);
-        } catch (Exception e) {
-            return Mono.error(e);
+        void notifyCommitted() {
+            if (!this.committed) return;
+            try {
+                onCommit(repository, transaction);
+            } catch (Exception e) {
+                log.warn("Failed to handle completed transaction for repository '{}'", repository, e);
+            }
         }
 
+        @Override
+        public Transaction onFailed(Exception e) {
+            transaction.setFailed(e.getMessage());
+            return transaction;
+        }
     }
 
     @Override
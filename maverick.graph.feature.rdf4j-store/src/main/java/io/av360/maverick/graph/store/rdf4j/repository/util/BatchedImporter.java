@@ -0,0 +1,87 @@
+package io.av360.maverick.graph.store.rdf4j.repository.util;
+
+import io.av360.maverick.graph.store.rdf.WritePriority;
+import io.av360.maverick.graph.store.rdf.models.ImportProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives the statements from the parser and commits them in batches through the writer of the repository. The
+ * parser is blocked while a batch is committed, which propagates the backpressure down to the upload.
+ */
+@Slf4j(topic = "graph.repository.import")
+public class BatchedImporter extends AbstractRDFHandler {
+
+    private final RepositoryWriter writer;
+    private final WritePriority priority;
+    private final int batchSize;
+    private final ImportProgress progress;
+    private final Runnable onBatch;
+
+    private List<Statement> batch;
+    private final Map<String, String> namespaces;
+
+    /**
+     * @param onBatch called after each committed batch
+     */
+    public BatchedImporter(RepositoryWriter writer, WritePriority priority, int batchSize, ImportProgress progress, Runnable onBatch) {
+        this.writer = writer;
+        this.priority = priority;
+        this.batchSize = batchSize;
+        this.progress = progress;
+        this.onBatch = onBatch;
+        this.batch = new ArrayList<>(batchSize);
+        this.namespaces = new LinkedHashMap<>();
+    }
+
+    @Override
+    public void handleNamespace(String prefix, String uri) {
+        this.namespaces.put(prefix, uri);
+    }
+
+    @Override
+    public void handleStatement(Statement statement) {
+        if (this.progress.isCancelled()) throw new RDFHandlerException("Import has been cancelled");
+        if (this.progress.skip()) return;
+
+        this.batch.add(statement);
+        if (this.batch.size() >= this.batchSize) {
+            this.flush();
+        }
+    }
+
+    @Override
+    public void endRDF() {
+        this.flush();
+    }
+
+    private void flush() {
+        if (this.batch.isEmpty() && this.namespaces.isEmpty()) return;
+
+        List<Statement> statements = this.batch;
+        Map<String, String> prefixes = Map.copyOf(this.namespaces);
+        this.batch = new ArrayList<>(this.batchSize);
+        this.namespaces.clear();
+
+        try {
+            this.writer.submit(connection -> {
+                prefixes.forEach(connection::setNamespace);
+                connection.add(statements);
+            }, this.priority).block();
+        } catch (RuntimeException e) {
+            throw new RDFHandlerException("Failed to commit batch of " + statements.size() + " statements", e);
+        }
+
+        // the parser reads ahead, the bytes of the upload can't be attributed to the committed statements
+        this.progress.committed(statements.size(), 0);
+        this.onBatch.run();
+        log.debug("Import progress: {}", this.progress);
+    }
+}
@@ -0,0 +1,273 @@
+package io.av360.maverick.graph.store.rdf4j.repository.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.av360.maverick.graph.store.rdf.models.Entity;
+import io.av360.maverick.graph.store.rdf4j.config.RepositoryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.rio.ntriples.NTriplesUtil;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Caches the materialized models of entities (including their embedded objects) together with their versions, with one
+ * partition for each repository (and therefore for each application).
+ * <p>
+ * The version of an entity is a hash of its statements, it therefore only depends on the committed state (and is the
+ * same on every node and after a restart). Entities which are not cached get their version once they are loaded.
+ * <p>
+ * Entries are invalidated whenever one of the resources within the entity is modified. The dependencies of each entry
+ * are the subjects (its embedded objects) and the IRIs in object position (its linked resources, their statements become
+ * part of the entity once they are created) of its model, the entries depending on a resource are indexed. Modifications
+ * which cannot be attributed to individual resources (e.g. sparql updates or imports) drop the partition of the
+ * affected repository, as does the eviction or reset of the repository (see {@link RepositoryRegistry#addRemovalListener}).
+ * <p>
+ * Each partition is bounded on its own, the entities of one repository therefore never evict the entities of the
+ * others. The total size is bounded by the number of open repositories (see {@link RepositoryRegistry}).
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.storage.entities.cache.enabled: true by default</li>
+ *     <li>application.storage.entities.cache.maxStatements: maximum number of cached statements per repository (default: 100000)</li>
+ *     <li>application.storage.entities.cache.expireAfterAccess: minutes after which unused entries are removed (default: 60)</li>
+ * </ul>
+ */
+@Component
+@Slf4j(topic = "graph.repository.cache")
+public class EntityCache {
+
+    private final boolean enabled;
+    private final long maxStatements;
+    private final long expireAfterAccess;
+    private final Map<String, Partition> partitions;
+    private final Map<String, AtomicLong> generations;
+    private final Counter hits;
+    private final Counter misses;
+
+    public EntityCache(@org.springframework.beans.factory.annotation.Value("${application.storage.entities.cache.enabled:true}") boolean enabled,
+                       @org.springframework.beans.factory.annotation.Value("${application.storage.entities.cache.maxStatements:100000}") long maxStatements,
+                       @org.springframework.beans.factory.annotation.Value("${application.storage.entities.cache.expireAfterAccess:60}") long expireAfterAccess,
+                       RepositoryRegistry registry,
+                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.maxStatements = maxStatements;
+        this.expireAfterAccess = expireAfterAccess;
+        this.partitions = new ConcurrentHashMap<>();
+        this.generations = new ConcurrentHashMap<>();
+
+        MeterRegistry meters = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.hits = Counter.builder("graph.store.entities.cache").description("Lookups of entities in the cache").tag("result", "hit").register(meters);
+        this.misses = Counter.builder("graph.store.entities.cache").description("Lookups of entities in the cache").tag("result", "miss").register(meters);
+
+        if (enabled) {
+            log.info("(Store) Caching up to {} statements of entities per repository", maxStatements);
+            registry.addRemovalListener(this::drop);
+            Gauge.builder("graph.store.entities.cache.statements", this, EntityCache::getStatements)
+                    .description("Cached statements of all repositories")
+                    .register(meters);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the generation of the repository, which has to be passed when adding entities to the cache. Entities which
+     * have been loaded before a modification are not cached.
+     */
+    public long getGeneration(Repository repository) {
+        return this.generation(repository.toString()).get();
+    }
+
+    /**
+     * @return a copy of the cached entity
+     */
+    public Optional<Entity> get(Repository repository, Resource id) {
+        return this.lookup(repository, id).map(entry -> new Entity(new LinkedHashModel(entry.model())));
+    }
+
+    /**
+     * @return the version of the cached entity, or empty if the entity is not cached
+     */
+    public Optional<String> getVersion(Repository repository, Resource id) {
+        return this.lookup(repository, id).map(Entry::version);
+    }
+
+    /**
+     * @return the number of cached statements of all repositories
+     */
+    public long getStatements() {
+        return this.partitions.values().stream()
+                .mapToLong(partition -> partition.entries().policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .sum();
+    }
+
+    public void put(Repository repository, Resource id, Entity entity, long generation) {
+        if (!enabled) return;
+
+        String label = repository.toString();
+        Model model = new LinkedHashModel(entity.getModel()).unmodifiable();
+        Set<Resource> resources = Stream.concat(model.subjects().stream(), model.objects().stream().filter(Value::isIRI).map(Resource.class::cast))
+                .filter(resource -> !resource.equals(id))
+                .collect(Collectors.toUnmodifiableSet());
+        Entry entry = new Entry(model, version(model), resources);
+
+        // a partition dropped meanwhile has been replaced with a new generation, the entry is then discarded with it
+        Partition partition = this.partitions.computeIfAbsent(label, l -> new Partition(this.maxStatements, this.expireAfterAccess));
+        // the dependents are indexed within the update of the entry, an invalidation afterwards therefore finds it
+        partition.entries().asMap().compute(id, (key, existing) -> {
+            if (generation != this.getGeneration(repository)) return existing;
+
+            if (existing != null) partition.removeDependents(key, existing);
+            resources.forEach(resource -> partition.dependents().computeIfAbsent(resource, k -> ConcurrentHashMap.newKeySet()).add(id));
+            return entry;
+        });
+    }
+
+    /**
+     * Removes all entities from the cache which comprise one of the given resources (either as entity, embedded object or
+     * linked resource).
+     */
+    public void invalidate(Repository repository, Collection<? extends Value> resources) {
+        if (!enabled) return;
+
+        String label = repository.toString();
+        this.generation(label).incrementAndGet();
+
+        Partition partition = this.partitions.get(label);
+        if (partition == null) return;
+        resources.stream().filter(Value::isResource).map(Resource.class::cast).forEach(resource -> {
+            partition.remove(resource);
+            Set<Resource> entities = partition.dependents().get(resource);
+            if (entities != null) List.copyOf(entities).forEach(partition::remove);
+        });
+    }
+
+    /**
+     * Removes all entities of the given repository from the cache.
+     */
+    public void invalidateAll(Repository repository) {
+        if (!enabled) return;
+        this.drop(repository);
+    }
+
+    /**
+     * @return the version of the given model of an entity, a hash of its statements (independent of their order)
+     */
+    public static String version(Model model) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            model.stream()
+                    .map(statement -> NTriplesUtil.toNTriplesString(statement.getSubject()) + " " + NTriplesUtil.toNTriplesString(statement.getPredicate()) + " " + NTriplesUtil.toNTriplesString(statement.getObject()))
+                    .sorted()
+                    .distinct()
+                    .forEach(line -> digest.update((line + "\n").getBytes(StandardCharsets.UTF_8)));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Missing hash algorithm for versions of entities", e);
+        }
+    }
+
+    private Optional<Entry> lookup(Repository repository, Resource id) {
+        if (!enabled) return Optional.empty();
+
+        Partition partition = this.partitions.get(repository.toString());
+        Entry entry = partition != null ? partition.entries().getIfPresent(id) : null;
+        (entry != null ? this.hits : this.misses).increment();
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * The generation is raised first, entities which are loaded meanwhile are therefore not added to the new partition.
+     */
+    private void drop(Repository repository) {
+        String label = repository.toString();
+        this.generation(label).incrementAndGet();
+
+        Partition partition = this.partitions.remove(label);
+        if (partition != null) {
+            partition.entries().invalidateAll();
+            if (log.isTraceEnabled()) log.trace("Dropped cached entities of repository '{}'", label);
+        }
+    }
+
+    private AtomicLong generation(String label) {
+        return this.generations.computeIfAbsent(label, l -> new AtomicLong());
+    }
+
+    /**
+     * The cached entities of one repository, and the entities depending on each resource.
+     */
+    private static class Partition {
+        private final Cache<Resource, Entry> entries;
+        private final Map<Resource, Set<Resource>> dependents;
+
+        Partition(long maxStatements, long expireAfterAccess) {
+            this.dependents = new ConcurrentHashMap<>();
+            this.entries = Caffeine.newBuilder()
+                    .maximumWeight(maxStatements)
+                    .weigher((Resource id, Entry entry) -> entry.model().size())
+                    .expireAfterAccess(expireAfterAccess, TimeUnit.MINUTES)
+                    .evictionListener(this::onEviction)
+                    // the maintenance (and the eviction) is done by the caller, the size of a partition is therefore never behind
+                    .executor(Runnable::run)
+                    .build();
+        }
+
+        Cache<Resource, Entry> entries() {
+            return this.entries;
+        }
+
+        Map<Resource, Set<Resource>> dependents() {
+            return this.dependents;
+        }
+
+        void remove(Resource id) {
+            this.entries.asMap().computeIfPresent(id, (k, entry) -> {
+                this.removeDependents(k, entry);
+                return null;
+            });
+        }
+
+        void removeDependents(Resource id, Entry entry) {
+            entry.dependencies().forEach(resource -> this.dependents.computeIfPresent(resource, (k, entities) -> {
+                entities.remove(id);
+                return entities.isEmpty() ? null : entities;
+            }));
+        }
+
+        /**
+         * Called within the eviction, the dependents are therefore removed before another entry for the entity is added.
+         */
+        private void onEviction(@Nullable Resource id, @Nullable Entry entry, RemovalCause cause) {
+            if (id == null || entry == null) return;
+            this.removeDependents(id, entry);
+        }
+    }
+
+    private record Entry(Model model, String version, Set<Resource> dependencies) {
+    }
+
+}
@@ -0,0 +1,168 @@
+package io.av360.maverick.graph.store.rdf4j.repository.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.av360.maverick.graph.model.vocabulary.Local;
+import io.av360.maverick.graph.model.vocabulary.Transactions;
+import io.av360.maverick.graph.store.rdf4j.config.RepositoryRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.eclipse.rdf4j.sparqlbuilder.constraint.Expressions;
+import org.eclipse.rdf4j.sparqlbuilder.core.SparqlBuilder;
+import org.eclipse.rdf4j.sparqlbuilder.core.Variable;
+import org.eclipse.rdf4j.sparqlbuilder.core.query.Queries;
+import org.eclipse.rdf4j.sparqlbuilder.graphpattern.GraphPattern;
+import org.eclipse.rdf4j.sparqlbuilder.rdf.Rdf;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the identifiers of the entities in lexical order (per repository), pages of entities can therefore be listed
+ * by continuation token without sorting all entities of the repository for every page.
+ * <p>
+ * The index of a repository is loaded with its first listing and updated with every commit. Modifications which cannot
+ * be attributed to individual entities (e.g. sparql updates or imports) drop the index, it is loaded again with the
+ * next listing. The indexes are bounded by the total number of identifiers (the least recently used indexes are evicted),
+ * and dropped together with their repository (see {@link RepositoryRegistry#addRemovalListener}). Repositories with
+ * more entities than the bound are not indexed, their pages are sorted by the query engine.
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.storage.entities.identifiers.maxEntries: maximum number of indexed identifiers (default: 1000000)</li>
+ * </ul>
+ */
+@Component
+@Slf4j(topic = "graph.repository.identifiers")
+public class EntityIdentifiers {
+
+    private final long maxEntries;
+    private final Cache<String, NavigableMap<String, IRI>> indexes;
+    private final Cache<String, Boolean> oversized;
+    private final Map<String, AtomicLong> generations;
+
+    public EntityIdentifiers(@org.springframework.beans.factory.annotation.Value("${application.storage.entities.identifiers.maxEntries:1000000}") long maxEntries,
+                             RepositoryRegistry registry) {
+        this.maxEntries = maxEntries;
+        this.generations = new ConcurrentHashMap<>();
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .weigher((String label, NavigableMap<String, IRI> index) -> index.size())
+                .build();
+        // repositories which are too large are checked again once in a while
+        this.oversized = Caffeine.newBuilder()
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .build();
+
+        registry.addRemovalListener(this::modified);
+    }
+
+    /**
+     * @param after the last identifier of the previous page, or null for the first page
+     * @return the identifiers following the given identifier
+     */
+    public List<IRI> list(RepositoryConnection connection, int limit, @Nullable IRI after) {
+        String label = connection.getRepository().toString();
+        NavigableMap<String, IRI> index = this.indexes.getIfPresent(label);
+        if (index == null && this.oversized.getIfPresent(label) == null) index = this.load(connection);
+        if (index == null) return this.query(connection, limit, after);
+
+        NavigableMap<String, IRI> page = after == null ? index : index.tailMap(after.stringValue(), false);
+        return page.values().stream().limit(limit).toList();
+    }
+
+    /**
+     * @return true, if the identifiers of the repository are indexed
+     */
+    public boolean isIndexed(Repository repository) {
+        return this.indexes.getIfPresent(repository.toString()) != null;
+    }
+
+    /**
+     * Adds the created and removes the deleted entities of the committed transaction.
+     */
+    public void committed(Repository repository, Model transaction) {
+        String label = repository.toString();
+        this.generation(label).incrementAndGet();
+
+        // computed again to update the weight of the index
+        this.indexes.asMap().computeIfPresent(label, (l, index) -> {
+            transaction.filter(null, RDF.TYPE, Local.Entities.TYPE, Transactions.GRAPH_DELETED).subjects().forEach(id -> index.remove(id.stringValue()));
+            transaction.filter(null, RDF.TYPE, Local.Entities.TYPE, Transactions.GRAPH_CREATED).subjects().stream()
+                    .filter(Value::isIRI)
+                    .forEach(id -> index.put(id.stringValue(), (IRI) id));
+            return index;
+        });
+    }
+
+    /**
+     * Drops the index of the given repository.
+     */
+    public void modified(Repository repository) {
+        String label = repository.toString();
+        this.generation(label).incrementAndGet();
+        this.indexes.invalidate(label);
+        this.oversized.invalidate(label);
+    }
+
+    /**
+     * @return the loaded index, or null if the repository has more entities than the bound
+     */
+    @Nullable
+    private NavigableMap<String, IRI> load(RepositoryConnection connection) {
+        String label = connection.getRepository().toString();
+        long generation = this.generation(label).get();
+
+        NavigableMap<String, IRI> index = new ConcurrentSkipListMap<>();
+        try (RepositoryResult<Statement> statements = connection.getStatements(null, RDF.TYPE, Local.Entities.TYPE, false)) {
+            Iterator<Statement> iterator = statements.iterator();
+            while (iterator.hasNext()) {
+                Value id = iterator.next().getSubject();
+                if (id.isIRI()) index.put(id.stringValue(), (IRI) id);
+                if (index.size() > this.maxEntries) {
+                    log.info("Repository '{}' has more than {} entities, the identifiers are not indexed", label, this.maxEntries);
+                    this.oversized.put(label, Boolean.TRUE);
+                    return null;
+                }
+            }
+        }
+
+        // an index which might miss the commits while loading is only used for this listing
+        this.indexes.asMap().compute(label, (l, existing) -> existing != null ? existing : generation == this.generation(label).get() ? index : null);
+        if (log.isDebugEnabled()) log.debug("Loaded index of {} entities in repository '{}'", index.size(), label);
+        return index;
+    }
+
+    private List<IRI> query(RepositoryConnection connection, int limit, @Nullable IRI after) {
+        Variable idVariable = SparqlBuilder.var("id");
+
+        GraphPattern pattern = idVariable.isA(Local.Entities.TYPE);
+        if (after != null) pattern = pattern.filter(Expressions.gt(Expressions.str(idVariable), Rdf.literalOf(after.stringValue())));
+        String query = Queries.SELECT(idVariable).where(pattern).orderBy(Expressions.str(idVariable)).limit(limit).getQueryString();
+
+        try (TupleQueryResult result = connection.prepareTupleQuery(QueryLanguage.SPARQL, query).evaluate()) {
+            return result.stream().map(bindings -> bindings.getValue(idVariable.getVarName())).filter(Value::isIRI).map(IRI.class::cast).toList();
+        }
+    }
+
+    private AtomicLong generation(String label) {
+        return this.generations.computeIfAbsent(label, l -> new AtomicLong());
+    }
+}
@@ -0,0 +1,71 @@
+package io.av360.maverick.graph.store.rdf4j.repository.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+import java.util.List;
+
+/**
+ * Commits a group of write operations within one storage transaction, which saves a sync to disk for each of them. If
+ * the group fails, it is rolled back and each operation is committed on its own, a failing operation therefore never
+ * affects the others.
+ * <p>
+ * Operations are only committed together if they request the same isolation level.
+ */
+@Slf4j(topic = "graph.repository.commit")
+final class GroupCommit {
+
+    /**
+     * A queued write operation, which is notified about the outcome of its commit.
+     */
+    interface Member {
+
+        WriteTask<?> task();
+
+        void complete();
+
+        void fail(Exception e);
+    }
+
+    private GroupCommit() {
+    }
+
+    static void commit(RepositoryConnection connection, List<? extends Member> group) {
+        boolean uniform = group.stream().map(member -> member.task().getIsolationLevel()).distinct().count() == 1;
+        if (group.size() > 1 && uniform) {
+            try {
+                begin(connection, group.get(0).task());
+                for (Member member : group) {
+                    member.task().write(connection);
+                }
+                connection.commit();
+
+                log.trace("Committed group of {} write operations to repository '{}'", group.size(), connection.getRepository());
+                group.forEach(Member::complete);
+                return;
+            } catch (Exception e) {
+                log.warn("Failed to commit group of {} write operations to repository '{}', committing them individually.", group.size(), connection.getRepository());
+                connection.rollback();
+            }
+        }
+
+        for (Member member : group) {
+            try {
+                begin(connection, member.task());
+                member.task().write(connection);
+                connection.commit();
+
+                member.complete();
+            } catch (Exception e) {
+                log.error("Failed to complete write operation for repository '{}'.", connection.getRepository(), e);
+                connection.rollback();
+                member.fail(e);
+            }
+        }
+    }
+
+    private static void begin(RepositoryConnection connection, WriteTask<?> task) {
+        if (task.getIsolationLevel() != null) connection.begin(task.getIsolationLevel());
+        else connection.begin();
+    }
+}
@@ -0,0 +1,22 @@
+package io.av360.maverick.graph.store.rdf4j.repository.util;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.base.AbstractValueFactory;
+
+/**
+ * The value factory for the parsers of a bulk load. The identifiers of blank nodes are kept (to link them across the
+ * chunks of the load), but prefixed with an identifier of the load to avoid collisions with blank nodes of earlier loads.
+ */
+class LoadValueFactory extends AbstractValueFactory {
+
+    private final String prefix;
+
+    LoadValueFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public BNode createBNode(String nodeID) {
+        return super.createBNode(this.prefix + nodeID);
+    }
+}
@@ -0,0 +1,200 @@
+package io.av360.maverick.graph.store.rdf4j.repository.util;
+
+import io.av360.maverick.graph.store.rdf.WritePriority;
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferInputStream;
+import io.av360.maverick.graph.store.rdf.models.ImportProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.common.transaction.IsolationLevel;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk loader for line-based formats (N-Triples and N-Quads). The upload is split into chunks on line boundaries, the
+ * chunks are parsed in parallel and committed in their original order through the writer of the repository. Each
+ * chunk is committed as one batch, with its statements sorted by subject, predicate and object (which keeps the
+ * inserts into the indexes of the store local).
+ * <p>
+ * Configured with the following properties:
+ * <ul>
+ *     <li>application.storage.import.bulk.parallelism: number of parsing threads (default: number of cores)</li>
+ *     <li>application.storage.import.bulk.chunkSize: size of the chunks in bytes (default: 4 MB)</li>
+ * </ul>
+ */
+@Component
+@Slf4j(topic = "graph.repository.import")
+public class ParallelLoader implements DisposableBean {
+
+    public static final Set<RDFFormat> SUPPORTED_FORMATS = Set.of(RDFFormat.NTRIPLES, RDFFormat.NQUADS);
+
+    private static final int PREFETCH = 16;
+    private static final Comparator<Statement> SPO_ORDER = Comparator
+            .comparing((Statement statement) -> statement.getSubject().stringValue())
+            .thenComparing(statement -> statement.getPredicate().stringValue())
+            .thenComparing(statement -> statement.getObject().stringValue());
+
+    private final Scheduler scheduler;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public ParallelLoader(@Value("${application.storage.import.bulk.parallelism:#{null}}") Integer parallelism,
+                          @Value("${application.storage.import.bulk.chunkSize:4194304}") int chunkSize) {
+        this.parallelism = parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+        this.scheduler = Schedulers.fromExecutorService(new ForkJoinPool(this.parallelism), "bulk-load");
+    }
+
+    /**
+     * @param progress is updated while the load is running, its offset is the number of statements to skip
+     * @param initial  if true, the batches are committed without isolation (faster, but concurrent readers see
+     *                 the partially loaded data). Meant for the initial load of a repository.
+     * @param onBatch  called after each committed batch
+     * @return the progress, once the load has completed
+     */
+    public Mono<ImportProgress> load(Publisher<DataBuffer> bytes, RDFFormat format, RepositoryWriter writer, ImportProgress progress, boolean initial, Runnable onBatch) {
+        return Mono.deferContextual(context -> {
+            WritePriority priority = WritePriority.from(context);
+            LoadValueFactory valueFactory = new LoadValueFactory(UUID.randomUUID().toString().substring(0, 8));
+            // bytes of skipped chunks are reported with the next committed batch
+            AtomicLong pendingBytes = new AtomicLong();
+            progress.start();
+
+            return Flux.using(() -> new LineChunks(new DataBufferInputStream(bytes, PREFETCH), this.chunkSize),
+                            chunks -> Flux.<byte[]>generate(sink -> {
+                                try {
+                                    if (progress.isCancelled()) throw new IOException("Load has been cancelled");
+                                    byte[] chunk = chunks.next();
+                                    if (chunk != null) sink.next(chunk);
+                                    else sink.complete();
+                                } catch (IOException e) {
+                                    sink.error(e);
+                                }
+                            }).subscribeOn(Schedulers.boundedElastic())
+                                    .flatMapSequential(chunk -> Mono.fromCallable(() -> this.parse(chunk, format, valueFactory)).subscribeOn(this.scheduler), this.parallelism, 1)
+                                    .map(parsed -> {
+                                        pendingBytes.addAndGet(parsed.bytes());
+                                        return parsed.statements().stream().filter(statement -> !progress.skip()).toList();
+                                    })
+                                    .filter(statements -> !statements.isEmpty())
+                                    .concatMap(statements -> writer.submit(new Batch(statements, initial), priority)
+                                            .doOnSuccess(v -> {
+                                                // the progress only covers the chunks which have been committed
+                                                progress.committed(statements.size(), pendingBytes.getAndSet(0));
+                                                onBatch.run();
+                                                log.debug("Bulk load progress: {}", progress);
+                                            }), 1),
+                            LineChunks::close)
+                    .then(Mono.fromSupplier(() -> {
+                        log.info("Bulk load completed: {}", progress);
+                        return progress;
+                    }))
+                    .doOnError(e -> log.warn("Bulk load failed after {}, resume with offset {}", progress, progress.getOffset()));
+        });
+    }
+
+    private Chunk parse(byte[] chunk, RDFFormat format, LoadValueFactory valueFactory) throws IOException {
+        List<Statement> statements = new ArrayList<>();
+
+        RDFParser parser = Rio.createParser(format, valueFactory);
+        parser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
+        parser.setRDFHandler(new StatementCollector(statements));
+        parser.parse(new ByteArrayInputStream(chunk));
+
+        statements.sort(SPO_ORDER);
+        return new Chunk(statements, chunk.length);
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.dispose();
+    }
+
+    private record Chunk(List<Statement> statements, long bytes) {
+    }
+
+    private record Batch(List<Statement> statements, boolean initial) implements WriteTask<Void> {
+
+        @Override
+        public void write(RepositoryConnection connection) {
+            connection.add(this.statements);
+        }
+
+        @Override
+        @Nullable
+        public IsolationLevel getIsolationLevel() {
+            return this.initial ? IsolationLevels.NONE : null;
+        }
+    }
+
+    /**
+     * Splits the stream into chunks of complete lines, a chunk is larger than the chunk size only if a single line is.
+     */
+    private static class LineChunks {
+        private final DataBufferInputStream input;
+        private final int chunkSize;
+        private byte[] remainder;
+
+        LineChunks(DataBufferInputStream input, int chunkSize) {
+            this.input = input;
+            this.chunkSize = chunkSize;
+            this.remainder = new byte[0];
+        }
+
+        @Nullable
+        byte[] next() throws IOException {
+            byte[] buffer = Arrays.copyOf(this.remainder, Math.max(this.chunkSize, this.remainder.length * 2));
+            int filled = this.remainder.length;
+            int scanned = 0;
+
+            while (true) {
+                int read = filled < buffer.length ? this.input.read(buffer, filled, buffer.length - filled) : 0;
+                if (read < 0) {
+                    this.remainder = new byte[0];
+                    return filled > 0 ? Arrays.copyOf(buffer, filled) : null;
+                }
+                filled += read;
+                if (filled < buffer.length) continue;
+
+                for (int i = filled - 1; i >= scanned; i--) {
+                    if (buffer[i] == '\n') {
+                        this.remainder = Arrays.copyOfRange(buffer, i + 1, filled);
+                        return Arrays.copyOf(buffer, i + 1);
+                    }
+                }
+                // a single line is larger than the chunk
+                scanned = filled;
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+
+        void close() {
+            this.input.close();
+        }
+    }
+}
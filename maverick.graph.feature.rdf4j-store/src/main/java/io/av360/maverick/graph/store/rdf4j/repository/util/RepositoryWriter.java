@@ -0,0 +1,213 @@
+package io.av360.maverick.graph.store.rdf4j.repository.util;
+
+import io.av360.maverick.graph.model.errors.StoreBusy;
+import io.av360.maverick.graph.store.rdf.WritePriority;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The single writer of one repository. All write operations are queued and committed one after the other, concurrent
+ * callers therefore never compete for the write lock of the store.
+ * <p>
+ * Write operations which arrive within a short window (or while the previous group is still being committed) are
+ * coalesced into one {@link GroupCommit group commit}.
+ * <p>
+ * The queue is bounded, callers are rejected with {@link StoreBusy} if it is full. Interactive write operations are
+ * taken first, each group includes at least one pending background operation to make sure these are not starved.
+ * <p>
+ * Only {@link WriteTask#onCommitted()} is called by the writer, the callers are notified on a separate worker (in the
+ * order of the commits), their downstream operations therefore never delay the next group commit.
+ */
+@Slf4j(topic = "graph.repository.commit")
+public class RepositoryWriter {
+
+    private final Repository repository;
+    private final Scheduler scheduler;
+    private final long window;
+    private final int maxGroupSize;
+    private final int capacity;
+    private final Map<WritePriority, Timer> latency;
+    private final Scheduler.Worker completion;
+
+    private final Map<WritePriority, Queue<PendingWrite<?>>> lanes;
+    private final AtomicInteger size;
+    private final AtomicBoolean scheduled;
+    private final AtomicInteger wip;
+
+    /**
+     * @param window       milliseconds to wait for further write operations before the group is committed (0 commits
+     *                     immediately, and coalesces only operations arriving while the previous group is committed)
+     * @param maxGroupSize maximum number of write operations within one group
+     * @param capacity     maximum number of pending write operations
+     * @param latency      timers for the time write operations are waiting in the queue
+     */
+    public RepositoryWriter(Repository repository, Scheduler scheduler, long window, int maxGroupSize, int capacity, Map<WritePriority, Timer> latency) {
+        this.repository = repository;
+        this.scheduler = scheduler;
+        this.window = window;
+        this.maxGroupSize = maxGroupSize;
+        this.capacity = capacity;
+        this.latency = latency;
+        this.completion = Schedulers.parallel().createWorker();
+        this.lanes = new EnumMap<>(WritePriority.class);
+        for (WritePriority priority : WritePriority.values()) {
+            this.lanes.put(priority, new ConcurrentLinkedQueue<>());
+        }
+        this.size = new AtomicInteger();
+        this.scheduled = new AtomicBoolean();
+        this.wip = new AtomicInteger();
+    }
+
+    /**
+     * Queues the write operation with the priority from the subscriber context.
+     *
+     * @return the result of the operation, once it has been committed (or has failed)
+     */
+    public <T> Mono<T> submit(WriteTask<T> task) {
+        return Mono.deferContextual(context -> this.submit(task, WritePriority.from(context)));
+    }
+
+    public <T> Mono<T> submit(WriteTask<T> task, WritePriority priority) {
+        return Mono.create(sink -> {
+            if (this.size.incrementAndGet() > this.capacity) {
+                this.size.decrementAndGet();
+                log.warn("Rejecting write operation for repository '{}', the queue is full.", repository);
+                sink.error(new StoreBusy(repository.toString()));
+                return;
+            }
+
+            this.lanes.get(priority).add(new PendingWrite<>(task, sink, priority, System.nanoTime(), this.completion));
+
+            if (this.size.get() >= this.maxGroupSize || this.window <= 0) {
+                this.signal();
+            } else if (this.scheduled.compareAndSet(false, true)) {
+                Schedulers.parallel().schedule(this::signal, this.window, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * @return the number of pending write operations
+     */
+    public int getPending() {
+        return this.size.get();
+    }
+
+    /**
+     * Makes sure the queue is drained. Only one thread is draining at a time, concurrent calls only make sure that
+     * the draining thread picks up the newly arrived write operations.
+     */
+    private void signal() {
+        if (this.wip.getAndIncrement() != 0) return;
+
+        try {
+            this.scheduler.schedule(this::drain);
+        } catch (RejectedExecutionException e) {
+            log.warn("Failed to schedule writer for repository '{}', rejecting all pending write operations.", repository);
+            this.wip.set(0);
+            this.rejectAll();
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            this.scheduled.set(false);
+            // the size is reserved before an operation is added to its lane, the lanes are therefore drained until empty
+            while (this.flush()) {
+                // continue with the next group
+            }
+            missed = this.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Commits the next group of pending write operations.
+     *
+     * @return false, if there were no pending write operations
+     */
+    private boolean flush() {
+        Queue<PendingWrite<?>> interactive = this.lanes.get(WritePriority.INTERACTIVE);
+        Queue<PendingWrite<?>> background = this.lanes.get(WritePriority.BACKGROUND);
+
+        List<PendingWrite<?>> group = new ArrayList<>();
+        int limit = background.isEmpty() ? this.maxGroupSize : Math.max(1, this.maxGroupSize - 1);
+        this.poll(interactive, group, limit);
+        this.poll(background, group, this.maxGroupSize);
+        if (group.isEmpty()) return false;
+        this.size.addAndGet(-group.size());
+
+        long now = System.nanoTime();
+        group.forEach(write -> this.latency.get(write.priority()).record(now - write.queued(), TimeUnit.NANOSECONDS));
+
+        try (RepositoryConnection connection = this.repository.getConnection()) {
+            GroupCommit.commit(connection, group);
+        } catch (Exception e) {
+            log.error("Failed to initialize connection to repository '{}'", repository, e);
+            group.forEach(write -> write.fail(e));
+        }
+        return true;
+    }
+
+    private void poll(Queue<PendingWrite<?>> lane, List<PendingWrite<?>> group, int limit) {
+        PendingWrite<?> next;
+        while (group.size() < limit && (next = lane.poll()) != null) {
+            group.add(next);
+        }
+    }
+
+    private void rejectAll() {
+        for (Queue<PendingWrite<?>> lane : this.lanes.values()) {
+            PendingWrite<?> next;
+            while ((next = lane.poll()) != null) {
+                this.size.decrementAndGet();
+                next.sink().error(new StoreBusy(repository.toString()));
+            }
+        }
+    }
+
+    /**
+     * The outcome is handed off to the completion worker, the writer continues with the next group meanwhile.
+     */
+    private record PendingWrite<T>(WriteTask<T> task, MonoSink<T> sink, WritePriority priority, long queued,
+                                   Scheduler.Worker completion) implements GroupCommit.Member {
+
+        @Override
+        public void complete() {
+            try {
+                T result = this.task.onCommitted();
+                this.completion.schedule(() -> this.sink.success(result));
+            } catch (Exception e) {
+                this.completion.schedule(() -> this.sink.error(e));
+            }
+        }
+
+        @Override
+        public void fail(Exception error) {
+            this.completion.schedule(() -> {
+                try {
+                    this.sink.success(this.task.onFailed(error));
+                } catch (Exception e) {
+                    this.sink.error(e);
+                }
+            });
+        }
+    }
+}
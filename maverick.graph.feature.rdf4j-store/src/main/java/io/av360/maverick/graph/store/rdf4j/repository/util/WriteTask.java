@@ -0,0 +1,50 @@
+package io.av360.maverick.graph.store.rdf4j.repository.util;
+
+import org.eclipse.rdf4j.common.transaction.IsolationLevel;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.springframework.lang.Nullable;
+
+/**
+ * A write operation, which is committed by the {@link RepositoryWriter} of a repository (possibly together with other
+ * write operations within the same storage transaction).
+ *
+ * @param <T> the result of the operation
+ */
+@FunctionalInterface
+public interface WriteTask<T> {
+
+    /**
+     * Applies the changes to the connection. The connection is within a transaction, which is committed by the writer.
+     */
+    void write(RepositoryConnection connection) throws Exception;
+
+    /**
+     * @return the isolation level for the transaction, or null for the default of the repository. Write operations are
+     * only committed together with operations requesting the same isolation level.
+     */
+    @Nullable
+    default IsolationLevel getIsolationLevel() {
+        return null;
+    }
+
+    /**
+     * Called by the writer once the changes have been committed, in the order of the commits. The next group is only
+     * committed afterwards, anything which doesn't need to be recorded in commit order belongs downstream of the result.
+     *
+     * @return the result of the operation
+     */
+    @Nullable
+    default T onCommitted() {
+        return null;
+    }
+
+    /**
+     * Called if the changes could not be committed (not by the writer), the default rethrows the error to the caller.
+     *
+     * @return the result of the operation
+     */
+    @Nullable
+    default T onFailed(Exception e) throws Exception {
+        throw e;
+    }
+}
@@ -0,0 +1,101 @@
+package io.av360.maverick.graph.main.api;
+
+import io.av360.maverick.graph.api.converter.encoder.BufferedStatementsEncoder;
+import io.av360.maverick.graph.model.rdf.NamespaceAwareStatement;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleNamespace;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.util.Namespaces;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class BufferedStatementsEncoderTest {
+
+    private static final Namespace EXAMPLE = new SimpleNamespace("ex", "http://example.org/vocabulary#");
+
+    private final BufferedStatementsEncoder encoder = new BufferedStatementsEncoder(Namespaces.DEFAULT_RDF4J);
+
+    @Test
+    void streamTurtle() throws IOException {
+        List<Statement> statements = this.createStatements();
+        List<DataBuffer> chunks = this.encode(statements, RDFFormat.TURTLE);
+        Assertions.assertTrue(chunks.size() > 1, "The output has not been streamed");
+
+        byte[] content = this.join(chunks);
+        String turtle = new String(content, StandardCharsets.UTF_8);
+        // declared up front, although the first statement is not aware of any namespaces
+        Assertions.assertTrue(turtle.contains("@prefix rdfs: <" + RDFS.NAMESPACE + ">"), "Missing prefix of the known namespaces");
+        Assertions.assertTrue(turtle.contains("@prefix ex: <" + EXAMPLE.getName() + ">"), "Missing prefix of the statements");
+
+        Model model = Rio.parse(new ByteArrayInputStream(content), RDFFormat.TURTLE);
+        Assertions.assertTrue(Models.isomorphic(statements, model));
+    }
+
+    @Test
+    void streamBinary() throws IOException {
+        List<Statement> statements = this.createStatements();
+        List<DataBuffer> chunks = this.encode(statements, RDFFormat.BINARY);
+        Assertions.assertTrue(chunks.size() > 1, "The output has not been streamed");
+
+        Model model = Rio.parse(new ByteArrayInputStream(this.join(chunks)), RDFFormat.BINARY);
+        Assertions.assertTrue(Models.isomorphic(statements, model));
+    }
+
+    /**
+     * Plain statements first, the statements with a further namespace follow later
+     */
+    private List<Statement> createStatements() {
+        ValueFactory vf = SimpleValueFactory.getInstance();
+        List<Statement> statements = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            statements.add(vf.createStatement(vf.createIRI("http://example.org/entities/", "e" + i), RDF.TYPE, RDFS.RESOURCE));
+            statements.add(vf.createStatement(vf.createIRI("http://example.org/entities/", "e" + i), RDFS.LABEL, vf.createLiteral("Entity " + i)));
+        }
+        Set<Namespace> namespaces = Set.of(EXAMPLE);
+        for (int i = 0; i < 100; i++) {
+            statements.add(NamespaceAwareStatement.wrap(vf.createStatement(vf.createIRI("http://example.org/entities/", "e" + i), vf.createIRI(EXAMPLE.getName(), "rank"), vf.createLiteral(i)), namespaces));
+        }
+        return statements;
+    }
+
+    private List<DataBuffer> encode(List<Statement> statements, RDFFormat format) {
+        return this.encoder.encode(Flux.fromIterable(statements), DefaultDataBufferFactory.sharedInstance, ResolvableType.forClass(Statement.class),
+                        MimeType.valueOf(format.getDefaultMIMEType()), Map.of())
+                .collectList()
+                .block();
+    }
+
+    private byte[] join(List<DataBuffer> chunks) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        chunks.forEach(chunk -> {
+            byte[] bytes = new byte[chunk.readableByteCount()];
+            chunk.read(bytes);
+            output.writeBytes(bytes);
+            DataBufferUtils.release(chunk);
+        });
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,120 @@
+package io.av360.maverick.graph.main.api.admin;
+
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.EntityStore;
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+class ExportChangesTest extends TestsBase {
+
+    @TempDir
+    static Path journal;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("application.storage.journal.path", () -> journal.toString());
+    }
+
+    @Autowired
+    private EntityStore entityStore;
+
+    @AfterEach
+    public void resetRepository() {
+        super.resetRepository(RepositoryType.ENTITIES.name());
+    }
+
+    @Test
+    void exportChangesSinceSequence() {
+        long exported = this.exportEntities();
+        super.upload("requests/create-valid.ttl");
+
+        EntityExchangeResult<byte[]> changes = this.exportChanges(exported);
+        long sequence = this.getSequence(changes);
+        String patch = new String(Objects.requireNonNull(changes.getResponseBody()), StandardCharsets.UTF_8);
+
+        Assertions.assertTrue(sequence > exported);
+        Assertions.assertTrue(patch.contains("H seq \"" + sequence + "\" ."), "Missing last transaction");
+        Assertions.assertTrue(patch.lines().anyMatch(line -> line.startsWith("A ")), "Missing inserted statements");
+
+        // nothing has changed since the last export
+        EntityExchangeResult<byte[]> next = this.exportChanges(sequence);
+        Assertions.assertEquals(String.valueOf(sequence), next.getResponseHeaders().getFirst("X-Sequence"));
+        Assertions.assertNull(next.getResponseBody());
+    }
+
+    @Test
+    void changesUnavailableAfterReset() {
+        long exported = this.exportEntities();
+        super.upload("requests/create-valid.ttl");
+        super.resetRepository(RepositoryType.ENTITIES.name());
+
+        webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/admin/bulk/export/changes").queryParam("since", exported).build())
+                .exchange()
+                .expectStatus().isEqualTo(410);
+    }
+
+    @Test
+    void changesUnavailableAfterUpdateQuery() {
+        long exported = this.exportEntities();
+        this.entityStore.modify("INSERT DATA { <urn:test:a> <urn:test:label> \"a\" . }",
+                new TestingAuthenticationToken("test", "test", List.of(Authorities.SYSTEM)), Authorities.SYSTEM).block();
+
+        webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/admin/bulk/export/changes").queryParam("since", exported).build())
+                .exchange()
+                .expectStatus().isEqualTo(410);
+
+        // the changes after a new full export are available again
+        long next = this.exportEntities();
+        Assertions.assertTrue(next > exported);
+        this.exportChanges(next);
+    }
+
+    /**
+     * @return the sequence of the full export
+     */
+    private long exportEntities() {
+        return this.getSequence(webClient.get()
+                .uri("/api/admin/bulk/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult());
+    }
+
+    private long getSequence(EntityExchangeResult<byte[]> result) {
+        return Long.parseLong(Objects.requireNonNull(result.getResponseHeaders().getFirst("X-Sequence")));
+    }
+
+    private EntityExchangeResult<byte[]> exportChanges(long since) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/admin/bulk/export/changes").queryParam("since", since).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult();
+    }
+}
@@ -0,0 +1,87 @@
+package io.av360.maverick.graph.main.api.admin;
+
+import io.av360.maverick.graph.feature.admin.domain.AdminServices;
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+@Slf4j
+class ExportEntitiesTest extends TestsBase {
+    @Autowired
+    private WebTestClient webClient;
+
+    @Autowired
+    private AdminServices adminServices;
+
+    @BeforeEach
+    public void importEntities() {
+        adminServices.importEntities(
+                DataBufferUtils.read(new ClassPathResource("requests/create-esco.ttl"), new DefaultDataBufferFactory(), 128),
+                "text/turtle",
+                new TestingAuthenticationToken("test", "test", List.of(Authorities.APPLICATION))
+        ).block();
+    }
+
+    @AfterEach
+    public void resetRepository() {
+        super.resetRepository(RepositoryType.ENTITIES.name());
+    }
+
+    @Test
+    void exportAsNTriples() throws IOException {
+        byte[] content = this.export("application/n-triples", false);
+        Model model = Rio.parse(new ByteArrayInputStream(content), RDFFormat.NTRIPLES);
+
+        Assert.isTrue(model.size() > 0, "No statements have been exported");
+    }
+
+    @Test
+    void exportAsCompressedBinary() throws IOException {
+        byte[] content = this.export("application/x-binary-rdf", true);
+        Model model = Rio.parse(new GZIPInputStream(new ByteArrayInputStream(content)), RDFFormat.BINARY);
+
+        Assert.isTrue(model.size() > 0, "No statements have been exported");
+    }
+
+    private byte[] export(String mimetype, boolean gzip) {
+        byte[] content = webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/admin/bulk/export")
+                        .queryParam("mimetype", mimetype)
+                        .queryParam("gzip", gzip)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        Assert.notNull(content, "Missing content of export");
+        return content;
+    }
+}
@@ -0,0 +1,164 @@
+package io.av360.maverick.graph.main.api.admin;
+
+import io.av360.maverick.graph.feature.admin.domain.JobsService;
+import io.av360.maverick.graph.feature.admin.domain.model.Job;
+import io.av360.maverick.graph.feature.admin.domain.model.JobState;
+import io.av360.maverick.graph.feature.admin.domain.model.JobStatus;
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+@Slf4j
+class ImportJobsTest extends TestsBase {
+    @Autowired
+    private WebTestClient webClient;
+
+    @Autowired
+    private JobsService jobsService;
+
+    @AfterEach
+    public void resetRepository() {
+        super.resetRepository(RepositoryType.ENTITIES.name());
+    }
+
+    @Test
+    void importRunsAsJob() throws InterruptedException, IOException {
+        JobStatus submitted = webClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/api/admin/bulk/import/entities")
+                        .queryParam("mimetype", "text/turtle")
+                        .build())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(new ClassPathResource("requests/create-esco.ttl").getInputStream().readAllBytes())
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(JobStatus.class)
+                .returnResult().getResponseBody();
+
+        JobStatus status = this.await(submitted);
+        Assert.isTrue(status.state() == JobState.DONE, "Job has not completed: " + status);
+        Assert.isTrue(status.statements() > 0, "No statements have been imported");
+    }
+
+    @Test
+    void bulkImportReportsCommittedBytes() throws InterruptedException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("<http://example.org/").append(i).append("> <http://www.w3.org/2000/01/rdf-schema#label> \"").append(i).append("\" .\n");
+        }
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        JobStatus submitted = webClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/api/admin/bulk/import/entities")
+                        .queryParam("mimetype", "application/n-triples")
+                        .queryParam("bulk", true)
+                        .build())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(bytes)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(JobStatus.class)
+                .returnResult().getResponseBody();
+
+        JobStatus status = this.await(submitted);
+        Assert.isTrue(status.state() == JobState.DONE, "Job has not completed: " + status);
+        Assert.isTrue(status.statements() == 1000, "Unexpected number of imported statements: " + status);
+        Assert.isTrue(status.bytes() == bytes.length, "Unexpected number of committed bytes: " + status);
+    }
+
+    @Test
+    void resetIsNotQueuedBehindRunningJobs() {
+        // occupies all slots of the queue
+        List<Job> running = IntStream.range(0, 4)
+                .mapToObj(i -> jobsService.submit("other", "import", "Blocking import " + i, null, Mono::never, null))
+                .toList();
+
+        try {
+            webClient.get()
+                    .uri(uriBuilder -> uriBuilder.path("/api/admin/bulk/reset").queryParam("name", RepositoryType.ENTITIES.name()).build())
+                    .exchange()
+                    .expectStatus().isAccepted()
+                    .expectBody(JobStatus.class)
+                    .value(status -> Assert.isTrue(status.state() == JobState.DONE, "Reset has not completed: " + status));
+        } finally {
+            running.forEach(job -> jobsService.cancel(job.getId(), "other"));
+        }
+    }
+
+    @Test
+    void jobsOfOtherApplicationsAreHidden() {
+        Job other = jobsService.submit("other", "import", "Import of other application", null, Mono::never, null);
+
+        try {
+            webClient.get()
+                    .uri("/api/admin/jobs/{id}", other.getId())
+                    .exchange()
+                    .expectStatus().isNotFound();
+
+            webClient.get()
+                    .uri("/api/admin/jobs")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(JobStatus.class)
+                    .value(jobs -> Assert.isTrue(jobs.stream().noneMatch(status -> status.id().equals(other.getId())), "Job of other application is listed"));
+
+            webClient.delete()
+                    .uri("/api/admin/jobs/{id}", other.getId())
+                    .exchange()
+                    .expectStatus().isNotFound();
+
+            Assert.isTrue(other.getState() != JobState.CANCELLED, "Job of other application has been cancelled");
+            Assert.isTrue(jobsService.get(other.getId(), "other").isPresent(), "Job is not visible to its application");
+        } finally {
+            jobsService.cancel(other.getId(), "other");
+        }
+    }
+
+    private JobStatus await(JobStatus submitted) throws InterruptedException {
+        Assert.notNull(submitted, "Missing status of submitted job");
+
+        JobStatus status = submitted;
+        Instant timeout = Instant.now().plus(Duration.ofSeconds(30));
+        while (!status.state().isFinished() && Instant.now().isBefore(timeout)) {
+            Thread.sleep(100);
+            status = webClient.get()
+                    .uri("/api/admin/jobs/{id}", submitted.id())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(JobStatus.class)
+                    .returnResult().getResponseBody();
+            Assert.notNull(status, "Missing status of job");
+        }
+        return status;
+    }
+
+    @Test
+    void unknownJob() {
+        webClient.get()
+                .uri("/api/admin/jobs/{id}", "unknown")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
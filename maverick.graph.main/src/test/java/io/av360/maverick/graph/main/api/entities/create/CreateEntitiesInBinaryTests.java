@@ -0,0 +1,80 @@
+package io.av360.maverick.graph.main.api.entities.create;
+
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.model.enums.RdfMimeTypes;
+import io.av360.maverick.graph.model.vocabulary.Transactions;
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+public class CreateEntitiesInBinaryTests extends TestsBase {
+
+    @AfterEach
+    public void resetRepository() {
+        super.resetRepository(RepositoryType.ENTITIES.name());
+    }
+
+    @Test
+    public void createEntityFromCompressedBinary() throws IOException {
+        byte[] content = webClient.post()
+                .uri("/api/entities")
+                .contentType(RdfMimeTypes.BINARY)
+                .accept(RdfMimeTypes.BINARY)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .bodyValue(this.compress(this.toBinary("requests/create-valid.ttl")))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        Assertions.assertNotNull(content);
+        Model model = Rio.parse(new ByteArrayInputStream(content), RDFFormat.BINARY);
+        Assertions.assertTrue(model.contains(null, Transactions.STATUS, Transactions.SUCCESS));
+    }
+
+    @Test
+    public void createEntityWithUnsupportedEncoding() throws IOException {
+        webClient.post()
+                .uri("/api/entities")
+                .contentType(RdfMimeTypes.BINARY)
+                .header(HttpHeaders.CONTENT_ENCODING, "br")
+                .bodyValue(this.toBinary("requests/create-valid.ttl"))
+                .exchange()
+                .expectStatus().isEqualTo(415);
+    }
+
+    private byte[] toBinary(String path) throws IOException {
+        try (InputStream input = new ClassPathResource(path).getInputStream()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Rio.write(Rio.parse(input, RDFFormat.TURTLE), output, RDFFormat.BINARY);
+            return output.toByteArray();
+        }
+    }
+
+    private byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(content);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,64 @@
+package io.av360.maverick.graph.main.api.entities.create;
+
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.reactive.function.BodyInserters;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "application.api.payload.maxBytes=1024",
+        "application.api.payload.maxStatements=5"
+})
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+public class CreateEntitiesWithLimitsTests extends TestsBase {
+
+    @AfterEach
+    public void resetRepository() {
+        super.resetRepository(RepositoryType.ENTITIES.name());
+    }
+
+    @Test
+    public void createEntityWithinLimits() {
+        webClient.post()
+                .uri("/api/entities")
+                .contentType(MediaType.parseMediaType("text/turtle"))
+                .body(BodyInserters.fromResource(new ClassPathResource("requests/create-valid.ttl")))
+                .exchange()
+                .expectStatus().isAccepted();
+    }
+
+    @Test
+    public void createEntitiesExceedingStatements() {
+        webClient.post()
+                .uri("/api/entities")
+                .contentType(MediaType.parseMediaType("text/turtle"))
+                .body(BodyInserters.fromResource(new ClassPathResource("requests/create-valid_multiple.ttl")))
+                .exchange()
+                .expectStatus().isEqualTo(413);
+    }
+
+    @Test
+    public void createEntityExceedingBytes() {
+        String payload = """
+                @prefix ns1: <https://schema.org/> .
+                [] a ns1:VideoObject ;
+                    ns1:identifier "_large" ;
+                    ns1:description "%s" .
+                """.formatted("x".repeat(2048));
+
+        webClient.post()
+                .uri("/api/entities")
+                .contentType(MediaType.parseMediaType("text/turtle"))
+                .bodyValue(payload)
+                .exchange()
+                .expectStatus().isEqualTo(413);
+    }
+}
@@ -0,0 +1,100 @@
+package io.av360.maverick.graph.main.api.entities.read;
+
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.model.enums.RdfMimeTypes;
+import io.av360.maverick.graph.model.vocabulary.SDO;
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.tests.util.RdfConsumer;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for the keyset pagination of endpoint GET /api/entities
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+public class ListEntitiesWithTokenTests extends TestsBase {
+
+    @AfterEach
+    public void resetRepository() {
+        super.resetRepository(RepositoryType.ENTITIES.name());
+    }
+
+    @Test
+    public void listAllPages() {
+        super.upload("requests/create-valid.ttl");
+        super.upload("requests/create-valid_multiple.ttl");
+
+        Set<Resource> entities = new HashSet<>();
+
+        RdfConsumer rdfConsumer = new RdfConsumer(RDFFormat.TURTLE);
+        EntityExchangeResult<byte[]> first = this.list("");
+        rdfConsumer.accept(first);
+        entities.addAll(rdfConsumer.asModel().filter(null, RDF.TYPE, SDO.VIDEO_OBJECT).subjects());
+        Assertions.assertEquals(2, entities.size());
+
+        String token = first.getResponseHeaders().getFirst("X-Continuation-Token");
+        Assertions.assertNotNull(token);
+
+        rdfConsumer = new RdfConsumer(RDFFormat.TURTLE);
+        EntityExchangeResult<byte[]> second = this.list(token);
+        rdfConsumer.accept(second);
+        entities.addAll(rdfConsumer.asModel().filter(null, RDF.TYPE, SDO.VIDEO_OBJECT).subjects());
+
+        // the last page is not full, and has no successor
+        Assertions.assertEquals(3, entities.size());
+        Assertions.assertNull(second.getResponseHeaders().getFirst("X-Continuation-Token"));
+    }
+
+    @Test
+    public void listAfterCreate() {
+        super.upload("requests/create-valid.ttl");
+
+        RdfConsumer rdfConsumer = new RdfConsumer(RDFFormat.TURTLE);
+        EntityExchangeResult<byte[]> first = this.list("");
+        rdfConsumer.accept(first);
+        Assertions.assertEquals(1, rdfConsumer.asModel().filter(null, RDF.TYPE, SDO.VIDEO_OBJECT).subjects().size());
+        Assertions.assertNull(first.getResponseHeaders().getFirst("X-Continuation-Token"));
+
+        // the entities created after the first listing are listed as well
+        super.upload("requests/create-valid_multiple.ttl");
+
+        rdfConsumer = new RdfConsumer(RDFFormat.TURTLE);
+        EntityExchangeResult<byte[]> second = this.list("");
+        rdfConsumer.accept(second);
+        Assertions.assertEquals(2, rdfConsumer.asModel().filter(null, RDF.TYPE, SDO.VIDEO_OBJECT).subjects().size());
+        Assertions.assertNotNull(second.getResponseHeaders().getFirst("X-Continuation-Token"));
+    }
+
+    @Test
+    public void listWithInvalidToken() {
+        webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/entities").queryParam("limit", 2).queryParam("token", "bm8gaXJp").build())
+                .accept(RdfMimeTypes.TURTLE)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private EntityExchangeResult<byte[]> list(String token) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/entities").queryParam("limit", 2).queryParam("token", token).build())
+                .accept(RdfMimeTypes.TURTLE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .returnResult();
+    }
+}
@@ -0,0 +1,85 @@
+package io.av360.maverick.graph.main.api.entities.read;
+
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.model.enums.RdfMimeTypes;
+import io.av360.maverick.graph.model.vocabulary.SDO;
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.tests.util.RdfConsumer;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.reactive.function.BodyInserters;
+
+/**
+ * Tests for the header 'ETag' and conditional requests of endpoint GET /api/entities/{id}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+public class ReadEntityVersionsTests extends TestsBase {
+
+    @AfterEach
+    public void resetRepository() {
+        super.resetRepository(RepositoryType.ENTITIES.name());
+    }
+
+    @Test
+    public void readUnmodifiedEntity() {
+        String id = this.createEntity();
+
+        String etag = this.read(id, null);
+        Assertions.assertNotNull(etag);
+
+        webClient.get()
+                .uri("/api/entities/{id}", id)
+                .accept(RdfMimeTypes.TURTLE)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void readModifiedEntity() {
+        String id = this.createEntity();
+        String etag = this.read(id, null);
+
+        webClient.post()
+                .uri("/api/entities/{id}/values/dc.description", id)
+                .contentType(MediaType.parseMediaType("text/plain"))
+                .body(BodyInserters.fromValue("This is a description"))
+                .exchange()
+                .expectStatus().isOk();
+
+        String modified = this.read(id, etag);
+        Assertions.assertNotNull(modified);
+        Assertions.assertNotEquals(etag, modified);
+    }
+
+    private String createEntity() {
+        RdfConsumer rdfConsumer = super.upload("requests/create-valid.ttl");
+        Statement video = rdfConsumer.findStatement(null, RDF.TYPE, SDO.VIDEO_OBJECT);
+        return vf.createIRI(video.getSubject().stringValue()).getLocalName();
+    }
+
+    private String read(String id, String etag) {
+        return webClient.get()
+                .uri("/api/entities/{id}", id)
+                .accept(RdfMimeTypes.TURTLE)
+                .headers(headers -> {
+                    if (etag != null) headers.setIfNoneMatch(etag);
+                })
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+    }
+}
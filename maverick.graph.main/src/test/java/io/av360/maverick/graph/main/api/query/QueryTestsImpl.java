@@ -58,6 +58,31 @@ public class QueryTestsImpl extends TestsBase implements QueriesTest {
         Assertions.assertEquals(6, csvConsumer.getRows().size());
     }
 
+    @Test
+    public void runSparqlQueryAsTsv() {
+        webClient.post()
+                .uri("/api/entities")
+                .contentType(MediaType.parseMediaType("text/turtle"))
+                .body(BodyInserters.fromResource(new ClassPathResource("requests/create-valid_multiple.ttl")))
+                .exchange()
+                .expectStatus().isAccepted();
+
+        String result = webClient.post()
+                .uri("/api/query/select")
+                .contentType(MediaType.parseMediaType("text/plain"))
+                .accept(MediaType.parseMediaType("text/tab-separated-values"))
+                .body(BodyInserters.fromValue("SELECT ?s ?title WHERE { ?s <https://schema.org/title> ?title }"))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        Assertions.assertNotNull(result);
+        // header and one line per solution
+        Assertions.assertEquals(3, result.lines().count());
+        Assertions.assertTrue(result.startsWith("?s\t?title"));
+    }
+
     @Override
     public void runInvalidSparqlQuery() {
 
@@ -0,0 +1,56 @@
+package io.av360.maverick.graph.main.api.query;
+
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.tests.util.TestsBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+class SelectQueryTest extends TestsBase {
+
+    @Autowired
+    private WebTestClient webClient;
+
+    @AfterEach
+    public void resetRepository() {
+        super.resetRepository(RepositoryType.ENTITIES.name());
+    }
+
+    @Test
+    void headerContainsUnboundOptional() {
+        webClient.post()
+                .uri("/api/entities")
+                .contentType(MediaType.parseMediaType("text/turtle"))
+                .body(BodyInserters.fromResource(new ClassPathResource("requests/create-valid_multiple.ttl")))
+                .exchange()
+                .expectStatus().isAccepted();
+
+        // the optional binding is unbound in every solution, including the first one
+        String result = webClient.post()
+                .uri("/api/query/select")
+                .contentType(MediaType.parseMediaType("text/plain"))
+                .accept(MediaType.parseMediaType("text/csv"))
+                .body(BodyInserters.fromValue("SELECT ?s ?missing ?title WHERE { ?s <https://schema.org/title> ?title OPTIONAL { ?s <urn:test:missing> ?missing } }"))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals("s,missing,title", result.lines().findFirst().orElse(""));
+        Assertions.assertEquals(3, result.lines().count(), "Unexpected number of solutions: " + result);
+        Assertions.assertTrue(result.lines().skip(1).allMatch(line -> line.split(",", -1).length == 3), "Unexpected columns: " + result);
+    }
+}
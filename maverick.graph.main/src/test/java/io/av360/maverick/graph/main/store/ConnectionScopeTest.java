@@ -0,0 +1,48 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.rdf.ConnectionScope;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuple2;
+
+/**
+ * Store operations within a {@link ConnectionScope} share one connection per repository.
+ */
+class ConnectionScopeTest extends StoreTestsBase {
+
+    @Test
+    public void reuseConnectionWithinScope() {
+        ConnectionScope scope = new ConnectionScope();
+
+        Tuple2<RepositoryConnection, RepositoryConnection> connections = this.twoConnections()
+                .contextWrite(context -> ConnectionScope.with(context, scope))
+                .block();
+
+        Assertions.assertNotNull(connections);
+        Assertions.assertSame(connections.getT1(), connections.getT2());
+        Assertions.assertTrue(connections.getT1().isOpen());
+
+        scope.close();
+        Assertions.assertFalse(connections.getT1().isOpen());
+    }
+
+    @Test
+    public void openConnectionPerCallWithoutScope() {
+        StepVerifier.create(this.twoConnections())
+                .assertNext(connections -> {
+                    Assertions.assertNotSame(connections.getT1(), connections.getT2());
+                    Assertions.assertFalse(connections.getT1().isOpen());
+                    Assertions.assertFalse(connections.getT2().isOpen());
+                })
+                .verifyComplete();
+    }
+
+    private Mono<Tuple2<RepositoryConnection, RepositoryConnection>> twoConnections() {
+        return this.entityStore.applyWithConnection(authentication, Authorities.READER, connection -> connection)
+                .zipWith(this.entityStore.applyWithConnection(authentication, Authorities.READER, connection -> connection));
+    }
+}
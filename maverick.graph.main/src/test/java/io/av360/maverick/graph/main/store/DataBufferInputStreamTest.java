@@ -0,0 +1,48 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Buffers are only requested as they are read, a publisher ignoring the demand fails the stream.
+ */
+class DataBufferInputStreamTest {
+
+    @Test
+    public void readAllBuffers() throws IOException {
+        Flux<DataBuffer> publisher = Flux.range(0, 10).map(i -> this.buffer("line " + i + "\n"));
+
+        try (DataBufferInputStream input = new DataBufferInputStream(publisher, 2)) {
+            String content = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            Assertions.assertEquals(10, content.lines().count());
+            Assertions.assertEquals(content.length(), input.getBytesRead());
+        }
+    }
+
+    @Test
+    public void failOnBuffersBeyondDemand() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<DataBuffer> publisher = Flux.create(sink -> {
+            sink.onCancel(() -> cancelled.set(true));
+            for (int i = 0; i < 10; i++) sink.next(this.buffer("line " + i + "\n"));
+        }, FluxSink.OverflowStrategy.IGNORE);
+
+        try (DataBufferInputStream input = new DataBufferInputStream(publisher, 2)) {
+            Assertions.assertThrows(IOException.class, input::readAllBytes);
+        }
+        Assertions.assertTrue(cancelled.get(), "Subscription has not been cancelled");
+    }
+
+    private DataBuffer buffer(String content) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,40 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.store.rdf.helpers.DataBufferOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A stream which has been released (e.g. by the cleanup of a cancelled response) can't be written anymore.
+ */
+class DataBufferOutputStreamTest {
+
+    @Test
+    public void drainWrittenContent() throws IOException {
+        DataBufferOutputStream output = new DataBufferOutputStream(DefaultDataBufferFactory.sharedInstance);
+        output.write("content".getBytes(StandardCharsets.UTF_8));
+
+        DataBuffer buffer = output.drain();
+        Assertions.assertNotNull(buffer);
+        Assertions.assertEquals("content", buffer.toString(StandardCharsets.UTF_8));
+        DataBufferUtils.release(buffer);
+        Assertions.assertNull(output.drain());
+    }
+
+    @Test
+    public void failWritesAfterRelease() throws IOException {
+        DataBufferOutputStream output = new DataBufferOutputStream(DefaultDataBufferFactory.sharedInstance);
+        output.write("content".getBytes(StandardCharsets.UTF_8));
+        output.release();
+
+        Assertions.assertThrows(IOException.class, () -> output.write("more".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertThrows(IOException.class, () -> output.write('x'));
+        Assertions.assertNull(output.drain());
+    }
+}
@@ -0,0 +1,149 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.rdf.models.Entity;
+import io.av360.maverick.graph.store.rdf.models.Transaction;
+import io.av360.maverick.graph.store.rdf4j.config.RepositoryRegistry;
+import io.av360.maverick.graph.store.rdf4j.repository.util.EntityCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cached entities are invalidated when one of their embedded or linked resources is modified (the cache is enabled in the
+ * test configuration). Versions are derived from the statements of the entity, each repository has its own partition.
+ */
+class EntityCacheTest extends StoreTestsBase {
+
+    @Autowired
+    private RepositoryRegistry registry;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Test
+    public void updateEmbeddedEntity() {
+        String ns = "http://example.org/" + UUID.randomUUID() + "/";
+        IRI entity = vf.createIRI(ns, "entity");
+        IRI embedded = vf.createIRI(ns, "embedded");
+
+        Model model = new LinkedHashModel();
+        model.add(entity, RDFS.SEEALSO, embedded);
+        model.add(embedded, RDFS.LABEL, vf.createLiteral("first"));
+        this.commit(model, new LinkedHashModel());
+        Assertions.assertTrue(this.load(entity).getModel().contains(embedded, RDFS.LABEL, vf.createLiteral("first")));
+
+        Model removed = new LinkedHashModel();
+        removed.add(embedded, RDFS.LABEL, vf.createLiteral("first"));
+        Model inserted = new LinkedHashModel();
+        inserted.add(embedded, RDFS.LABEL, vf.createLiteral("second"));
+        this.commit(inserted, removed);
+
+        Model reloaded = this.load(entity).getModel();
+        Assertions.assertTrue(reloaded.contains(embedded, RDFS.LABEL, vf.createLiteral("second")));
+        Assertions.assertFalse(reloaded.contains(embedded, RDFS.LABEL, vf.createLiteral("first")));
+    }
+
+    @Test
+    public void createReferencedEntityLater() {
+        String ns = "http://example.org/" + UUID.randomUUID() + "/";
+        IRI entity = vf.createIRI(ns, "entity");
+        IRI referenced = vf.createIRI(ns, "referenced");
+
+        Model model = new LinkedHashModel();
+        model.add(entity, RDFS.SEEALSO, referenced);
+        this.commit(model, new LinkedHashModel());
+        Assertions.assertFalse(this.load(entity).getModel().contains(referenced, RDFS.LABEL, null));
+
+        Model created = new LinkedHashModel();
+        created.add(referenced, RDFS.LABEL, vf.createLiteral("referenced"));
+        this.commit(created, new LinkedHashModel());
+
+        Assertions.assertTrue(this.load(entity).getModel().contains(referenced, RDFS.LABEL, vf.createLiteral("referenced")));
+    }
+
+    @Test
+    public void deriveVersionFromStatements() {
+        String ns = "http://example.org/" + UUID.randomUUID() + "/";
+        IRI entity = vf.createIRI(ns, "entity");
+
+        Model model = new LinkedHashModel();
+        model.add(entity, RDFS.LABEL, vf.createLiteral("first"));
+        model.add(entity, RDFS.COMMENT, vf.createLiteral("comment"));
+        this.commit(model, new LinkedHashModel());
+
+        // known without loading the entity before, and independent of the order of the statements
+        String version = this.entityStore.getVersion(entity, authentication, Authorities.READER).block();
+        Assertions.assertNotNull(version);
+        List<Statement> statements = new ArrayList<>(model);
+        Collections.reverse(statements);
+        Model reversed = new LinkedHashModel(statements);
+        Assertions.assertEquals(EntityCache.version(reversed), version);
+        Assertions.assertEquals(version, this.entityStore.getVersion(entity, authentication, Authorities.READER).block());
+
+        Model removed = new LinkedHashModel();
+        removed.add(entity, RDFS.LABEL, vf.createLiteral("first"));
+        Model inserted = new LinkedHashModel();
+        inserted.add(entity, RDFS.LABEL, vf.createLiteral("second"));
+        this.commit(inserted, removed);
+
+        Assertions.assertNotEquals(version, this.entityStore.getVersion(entity, authentication, Authorities.READER).block());
+        Assertions.assertNull(this.entityStore.getVersion(vf.createIRI(ns, "unknown"), authentication, Authorities.READER).block());
+    }
+
+    @Test
+    public void partitionByRepository() {
+        EntityCache cache = new EntityCache(true, 3, 60, registry, meterRegistry);
+        Repository first = new SailRepository(new MemoryStore());
+        Repository second = new SailRepository(new MemoryStore());
+
+        IRI entity = vf.createIRI("http://example.org/", "entity");
+        cache.put(first, entity, this.entity(entity, 3), cache.getGeneration(first));
+
+        // the entities of the second repository only evict each other
+        for (int i = 0; i < 10; i++) {
+            IRI other = vf.createIRI("http://example.org/", "other" + i);
+            cache.put(second, other, this.entity(other, 3), cache.getGeneration(second));
+        }
+        Assertions.assertTrue(cache.get(first, entity).isPresent());
+        Assertions.assertTrue(cache.getStatements() <= 6);
+
+        cache.invalidateAll(second);
+        Assertions.assertTrue(cache.get(first, entity).isPresent());
+        Assertions.assertEquals(3, cache.getStatements());
+    }
+
+    private Entity entity(IRI id, int statements) {
+        Model model = new LinkedHashModel();
+        for (int i = 0; i < statements; i++) model.add(id, RDFS.LABEL, vf.createLiteral(i));
+        return new Entity(model);
+    }
+
+    private void commit(Model inserted, Model removed) {
+        Transaction transaction = new Transaction();
+        if (!removed.isEmpty()) this.entityStore.delete(removed, transaction).block();
+        if (!inserted.isEmpty()) this.entityStore.insert(inserted, transaction).block();
+        this.entityStore.commit(transaction, authentication).block();
+    }
+
+    private Entity load(IRI id) {
+        Entity entity = this.entityStore.getEntity(id, authentication, Authorities.READER).block();
+        Assertions.assertNotNull(entity);
+        return entity;
+    }
+}
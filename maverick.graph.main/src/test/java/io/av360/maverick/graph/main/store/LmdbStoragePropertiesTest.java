@@ -0,0 +1,76 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.store.rdf4j.config.LmdbStorageProperties;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.lmdb.LmdbStore;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * The LMDB settings are bound per repository type, unset settings fall back to the defaults of the store.
+ */
+class LmdbStoragePropertiesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void bindSettingsPerRepositoryType() {
+        LmdbStorageProperties properties = this.bind(Map.of(
+                "application.storage.entities.lmdb.tripleIndexes", "spoc,posc",
+                "application.storage.entities.lmdb.tripleDbSize", "64MB",
+                "application.storage.entities.lmdb.forceSync", "true",
+                "application.storage.transactions.lmdb.valueCacheSize", "128"));
+        properties.validate();
+
+        LmdbStoreConfig entities = properties.getStoreConfig(RepositoryType.ENTITIES);
+        Assertions.assertEquals("spoc,posc", entities.getTripleIndexes());
+        Assertions.assertEquals(64L * 1024 * 1024, entities.getTripleDBSize());
+        Assertions.assertTrue(entities.getForceSync());
+
+        LmdbStoreConfig transactions = properties.getStoreConfig(RepositoryType.TRANSACTIONS);
+        LmdbStoreConfig defaults = new LmdbStoreConfig();
+        Assertions.assertEquals(128, transactions.getValueCacheSize());
+        Assertions.assertEquals(defaults.getTripleIndexes(), transactions.getTripleIndexes());
+        Assertions.assertEquals(defaults.getTripleDBSize(), transactions.getTripleDBSize());
+    }
+
+    @Test
+    public void rejectInvalidSettings() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.bind(Map.of("application.storage.schema.lmdb.tripleIndexes", "spoc,spox")).validate());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.bind(Map.of("application.storage.schema.lmdb.tripleIndexes", "sppc")).validate());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.bind(Map.of("application.storage.entities.lmdb.valueCacheSize", "0")).validate());
+    }
+
+    @Test
+    public void openStoreWithConfiguration() {
+        LmdbStorageProperties properties = this.bind(Map.of(
+                "application.storage.entities.lmdb.tripleIndexes", "spoc,ospc",
+                "application.storage.entities.lmdb.tripleDbSize", "16MB",
+                "application.storage.entities.lmdb.valueDbSize", "16MB"));
+        properties.validate();
+
+        SailRepository repository = new SailRepository(new LmdbStore(directory.toFile(), properties.getStoreConfig(RepositoryType.ENTITIES)));
+        try (RepositoryConnection connection = repository.getConnection()) {
+            connection.add(RDFS.RESOURCE, RDFS.LABEL, connection.getValueFactory().createLiteral("resource"));
+            Assertions.assertEquals(1, connection.size());
+        } finally {
+            repository.shutDown();
+        }
+    }
+
+    private LmdbStorageProperties bind(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bindOrCreate("application.storage", LmdbStorageProperties.class);
+    }
+}
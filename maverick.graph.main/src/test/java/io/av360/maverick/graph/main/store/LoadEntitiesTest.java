@@ -0,0 +1,123 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.rdf.models.Entity;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Entities are loaded with lookups in the subject index on one connection, the identifiers never become part of a query.
+ */
+class LoadEntitiesTest extends StoreTestsBase {
+
+    @Test
+    public void loadEntitiesWithUnsafeIdentifiers() {
+        String ns = "http://example.org/" + UUID.randomUUID() + "/";
+        IRI plain = vf.createIRI(ns, "plain");
+        IRI unsafe = vf.createIRI(ns, "x> ?p ?o } #");
+        this.add(plain, "plain");
+        this.add(unsafe, "unsafe");
+
+        List<Entity> entities = this.entityStore.getEntities(List.of(plain, unsafe), authentication, Authorities.READER).collectList().block();
+
+        Assertions.assertNotNull(entities);
+        Assertions.assertEquals(2, entities.size());
+        Assertions.assertTrue(entities.get(0).getModel().contains(plain, RDFS.LABEL, vf.createLiteral("plain")));
+        Assertions.assertTrue(entities.get(1).getModel().contains(unsafe, RDFS.LABEL, vf.createLiteral("unsafe")));
+        Assertions.assertEquals(1, entities.get(1).getModel().size());
+    }
+
+    @Test
+    public void loadEntitiesInSeveralBatches() {
+        String ns = "http://example.org/" + UUID.randomUUID() + "/";
+        List<IRI> ids = IntStream.range(0, 1200).mapToObj(i -> vf.createIRI(ns, "e" + i)).toList();
+        this.entityStore.applyWithConnection(authentication, Authorities.SYSTEM, connection -> {
+            ids.forEach(id -> connection.add(id, RDFS.LABEL, vf.createLiteral(id.getLocalName())));
+            return true;
+        }).block();
+
+        List<Entity> entities = this.entityStore.getEntities(ids, authentication, Authorities.READER).collectList().block();
+
+        Assertions.assertNotNull(entities);
+        Assertions.assertEquals(ids.size(), entities.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Assertions.assertTrue(entities.get(i).getModel().contains(ids.get(i), RDFS.LABEL, vf.createLiteral("e" + i)));
+        }
+    }
+
+    @Test
+    public void returnEntitiesInRequestedOrder() {
+        String ns = "http://example.org/" + UUID.randomUUID() + "/";
+        IRI first = vf.createIRI(ns, "first");
+        IRI second = vf.createIRI(ns, "second");
+        IRI unknown = vf.createIRI(ns, "unknown");
+        this.add(first, "first");
+        this.add(second, "second");
+
+        List<Entity> entities = this.entityStore.getEntities(List.of(second, unknown, first), authentication, Authorities.READER).collectList().block();
+
+        Assertions.assertNotNull(entities);
+        Assertions.assertEquals(2, entities.size());
+        Assertions.assertTrue(entities.get(0).getModel().contains(second, RDFS.LABEL, null));
+        Assertions.assertTrue(entities.get(1).getModel().contains(first, RDFS.LABEL, null));
+    }
+
+    @Test
+    public void loadEmbeddedObjectsOfCycles() {
+        String ns = "http://example.org/" + UUID.randomUUID() + "/";
+        IRI a = vf.createIRI(ns, "a");
+        IRI b = vf.createIRI(ns, "b");
+        this.add(a, "a");
+        this.add(b, "b");
+        this.entityStore.applyWithConnection(authentication, Authorities.SYSTEM, connection -> {
+            connection.add(a, RDFS.SEEALSO, b);
+            connection.add(b, RDFS.SEEALSO, a);
+            return true;
+        }).block();
+
+        List<Entity> entities = this.entityStore.getEntities(List.of(a, b), authentication, Authorities.READER).collectList().block();
+
+        Assertions.assertNotNull(entities);
+        Assertions.assertEquals(2, entities.size());
+        Assertions.assertTrue(entities.get(0).getModel().contains(b, RDFS.LABEL, vf.createLiteral("b")));
+        Assertions.assertTrue(entities.get(1).getModel().contains(a, RDFS.LABEL, vf.createLiteral("a")));
+    }
+
+    @Test
+    public void loadSameModelRegardlessOfBatch() {
+        String ns = "http://example.org/" + UUID.randomUUID() + "/";
+        IRI context = vf.createIRI(ns, "context");
+        IRI alone = vf.createIRI(ns, "alone");
+        IRI batched = vf.createIRI(ns, "batched");
+        IRI other = vf.createIRI(ns, "other");
+        this.entityStore.applyWithConnection(authentication, Authorities.SYSTEM, connection -> {
+            connection.add(alone, RDFS.LABEL, vf.createLiteral("entity"), context);
+            connection.add(batched, RDFS.LABEL, vf.createLiteral("entity"), context);
+            connection.add(other, RDFS.LABEL, vf.createLiteral("other"));
+            return true;
+        }).block();
+
+        Entity single = this.entityStore.getEntities(List.of(alone), authentication, Authorities.READER).blockFirst();
+        List<Entity> multiple = this.entityStore.getEntities(List.of(batched, other), authentication, Authorities.READER).collectList().block();
+
+        Assertions.assertNotNull(single);
+        Assertions.assertNotNull(multiple);
+        Assertions.assertTrue(single.getModel().contains(alone, RDFS.LABEL, vf.createLiteral("entity")));
+        Assertions.assertTrue(multiple.get(0).getModel().contains(batched, RDFS.LABEL, vf.createLiteral("entity")));
+        Assertions.assertEquals(single.getModel().size(), multiple.get(0).getModel().size());
+        Assertions.assertEquals(single.getModel().contexts(), multiple.get(0).getModel().contexts());
+    }
+
+    private void add(IRI subject, String label) {
+        this.entityStore.applyWithConnection(authentication, Authorities.SYSTEM, connection -> {
+            connection.add(subject, RDFS.LABEL, vf.createLiteral(label));
+            return true;
+        }).block();
+    }
+}
@@ -0,0 +1,190 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.store.rdf.LabeledRepository;
+import io.av360.maverick.graph.model.vocabulary.Local;
+import io.av360.maverick.graph.store.rdf4j.config.RepositoryRegistry;
+import io.av360.maverick.graph.store.rdf4j.repository.util.EntityIdentifiers;
+import io.av360.maverick.graph.store.rdf.WritePriority;
+import io.av360.maverick.graph.store.rdf4j.repository.util.RepositoryWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repositories are evicted from the registry or reset while they are used concurrently.
+ */
+class RepositoryRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void connectWhileEvicting() throws Exception {
+        // only one persistent repository is kept open, every other access evicts one
+        RepositoryRegistry registry = new RepositoryRegistry(1, 60, 60, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            String key = "repository-" + (thread % 3);
+            tasks.add(this.executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    Repository repository = registry.get(key, () -> this.build(key));
+                    Thread.yield();
+                    try (RepositoryConnection connection = repository.getConnection()) {
+                        Assertions.assertTrue(connection.isOpen());
+                        connection.size();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        for (Future<?> task : tasks) {
+            task.get(60, TimeUnit.SECONDS);
+        }
+
+        registry.destroy();
+        Assertions.assertEquals(0, registry.getOpenRepositories());
+    }
+
+    @Test
+    public void connectToSuccessorOfEvictedRepository() throws InterruptedException {
+        RepositoryRegistry registry = new RepositoryRegistry(1, 60, 60, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        LabeledRepository first = registry.get("first", () -> this.build("first"));
+        registry.get("second", () -> this.build("second"));
+        registry.get("second", () -> this.build("second"));
+
+        // the first repository is evicted (in the background) and shut down, since it has no open connections
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!first.isClosed() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(first.isClosed());
+        try (RepositoryConnection connection = first.getConnection()) {
+            Assertions.assertTrue(connection.isOpen());
+            Assertions.assertNotSame(first, connection.getRepository());
+        }
+        registry.destroy();
+    }
+
+    @Test
+    public void dropIndexOfEvictedRepository() throws InterruptedException {
+        RepositoryRegistry registry = new RepositoryRegistry(1, 60, 60, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        EntityIdentifiers identifiers = new EntityIdentifiers(1000, registry);
+        ValueFactory vf = SimpleValueFactory.getInstance();
+
+        LabeledRepository first = registry.get("first", () -> this.build("first"));
+        try (RepositoryConnection connection = first.getConnection()) {
+            connection.add(vf.createIRI("http://example.org/entity"), RDF.TYPE, Local.Entities.TYPE);
+            Assertions.assertEquals(1, identifiers.list(connection, 10, null).size());
+        }
+        Assertions.assertTrue(identifiers.isIndexed(first));
+
+        registry.get("second", () -> this.build("second"));
+        registry.get("second", () -> this.build("second"));
+
+        // the index is dropped with the eviction (in the background) of the first repository
+        long deadline = System.currentTimeMillis() + 10000;
+        while (identifiers.isIndexed(first) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertFalse(identifiers.isIndexed(first));
+        registry.destroy();
+    }
+
+    @Test
+    public void resetWhileWritesAreQueued() throws Exception {
+        RepositoryRegistry registry = new RepositoryRegistry(10, 60, 1, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ValueFactory vf = SimpleValueFactory.getInstance();
+        IRI before = vf.createIRI("http://example.org/before");
+        IRI queued = vf.createIRI("http://example.org/queued");
+
+        LabeledRepository previous = registry.get("entities", () -> this.build(registry, "entities"));
+        try (RepositoryConnection connection = previous.getConnection()) {
+            connection.add(before, RDFS.LABEL, vf.createLiteral("before"));
+        }
+
+        // a running export keeps its connection to the previous repository
+        RepositoryConnection export = previous.getConnection();
+
+        // the write is queued until the window has passed, which is after the reset
+        RepositoryWriter writer = new RepositoryWriter(previous, Schedulers.boundedElastic(), 500, 100, 100, this.timers());
+        CompletableFuture<Void> write = writer.<Void>submit(connection -> connection.add(queued, RDFS.LABEL, vf.createLiteral("queued")), WritePriority.INTERACTIVE).toFuture();
+        CompletableFuture<Void> cleanup = registry.reset(previous);
+        write.get(10, TimeUnit.SECONDS);
+
+        LabeledRepository current = registry.get("entities", () -> this.build(registry, "entities"));
+        Assertions.assertNotSame(previous, current);
+        try (RepositoryConnection connection = current.getConnection()) {
+            Assertions.assertTrue(connection.hasStatement(queued, RDFS.LABEL, null, false));
+            Assertions.assertFalse(connection.hasStatement(before, RDFS.LABEL, null, false));
+        }
+
+        // the export is not interrupted once the reset timeout has passed
+        Thread.sleep(1500);
+        Assertions.assertTrue(export.isOpen());
+        Assertions.assertTrue(export.hasStatement(before, RDFS.LABEL, null, false));
+        Assertions.assertFalse(export.hasStatement(queued, RDFS.LABEL, null, false));
+        Assertions.assertFalse(cleanup.isDone());
+
+        export.close();
+        cleanup.get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(previous.isClosed());
+        Assertions.assertFalse(previous.getDataDir().exists());
+        registry.destroy();
+    }
+
+    private Map<WritePriority, Timer> timers() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Map<WritePriority, Timer> timers = new EnumMap<>(WritePriority.class);
+        for (WritePriority priority : WritePriority.values()) {
+            timers.put(priority, meterRegistry.timer("latency", "priority", priority.name()));
+        }
+        return timers;
+    }
+
+    private LabeledRepository build(String key) {
+        MemoryStore store = new MemoryStore(this.directory.resolve(key).toFile());
+        return new LabeledRepository(key, new SailRepository(store));
+    }
+
+    private LabeledRepository build(RepositoryRegistry registry, String key) {
+        // a reset repository is initialized in the next generation of its directory
+        MemoryStore store = new MemoryStore(registry.resolvePath(this.directory.resolve(key)).toFile());
+        return new LabeledRepository(key, new SailRepository(store));
+    }
+}
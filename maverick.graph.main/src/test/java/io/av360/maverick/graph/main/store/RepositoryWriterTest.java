@@ -0,0 +1,168 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.model.errors.StoreBusy;
+import io.av360.maverick.graph.store.rdf.WritePriority;
+import io.av360.maverick.graph.store.rdf4j.repository.util.RepositoryWriter;
+import io.av360.maverick.graph.store.rdf4j.repository.util.WriteTask;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Write operations arriving within the window are committed as a group, a failing operation doesn't affect the others.
+ */
+class RepositoryWriterTest {
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+    private final Repository repository = new SailRepository(new MemoryStore());
+
+    @AfterEach
+    public void shutdown() {
+        this.repository.shutDown();
+    }
+
+    @Test
+    public void commitGroupWithFailingOperation() {
+        RepositoryWriter writer = this.writer(50, 100, 100);
+
+        List<Mono<String>> writes = IntStream.range(0, 10).mapToObj(i -> writer.submit(new WriteTask<String>() {
+            @Override
+            public void write(RepositoryConnection connection) {
+                if (i == 5) throw new IllegalStateException("failing write");
+                connection.add(vf.createIRI("http://example.org/" + i), RDFS.LABEL, vf.createLiteral(i));
+            }
+
+            @Override
+            public String onCommitted() {
+                return "committed";
+            }
+
+            @Override
+            public String onFailed(Exception e) {
+                return "failed";
+            }
+        }, WritePriority.INTERACTIVE)).toList();
+
+        List<String> results = Flux.mergeSequential(writes).collectList().block(Duration.ofSeconds(10));
+
+        Assertions.assertNotNull(results);
+        Assertions.assertEquals(9, results.stream().filter("committed"::equals).count());
+        Assertions.assertEquals("failed", results.get(5));
+        try (RepositoryConnection connection = this.repository.getConnection()) {
+            Assertions.assertEquals(9, connection.size());
+        }
+        Assertions.assertEquals(0, writer.getPending());
+    }
+
+    @Test
+    public void rejectWritesBeyondCapacity() {
+        RepositoryWriter writer = this.writer(10000, 100, 2);
+
+        // nothing is committed within the window, the third write exceeds the capacity
+        writer.submit(connection -> {}, WritePriority.INTERACTIVE).subscribe();
+        writer.submit(connection -> {}, WritePriority.BACKGROUND).subscribe();
+
+        StepVerifier.create(writer.submit(connection -> {}, WritePriority.INTERACTIVE))
+                .expectError(StoreBusy.class)
+                .verify(Duration.ofSeconds(10));
+        Assertions.assertEquals(2, writer.getPending());
+    }
+
+    @Test
+    public void takeInteractiveWritesFirst() throws Exception {
+        RepositoryWriter writer = this.writer(0, 2, 100);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // the first write blocks the writer, the others are queued meanwhile
+        writer.submit(connection -> {
+            running.countDown();
+            release.await();
+            order.add("blocking");
+        }, WritePriority.INTERACTIVE).subscribe();
+        Assertions.assertTrue(running.await(10, TimeUnit.SECONDS));
+
+        List<CompletableFuture<?>> queued = List.of(
+                writer.submit(connection -> order.add("background"), WritePriority.BACKGROUND).toFuture(),
+                writer.submit(connection -> order.add("interactive-1"), WritePriority.INTERACTIVE).toFuture(),
+                writer.submit(connection -> order.add("interactive-2"), WritePriority.INTERACTIVE).toFuture());
+        Assertions.assertEquals(3, writer.getPending());
+
+        release.countDown();
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        // each group keeps one slot for a background write
+        Assertions.assertEquals(List.of("blocking", "interactive-1", "background", "interactive-2"), order);
+        Assertions.assertEquals(0, writer.getPending());
+    }
+
+    @Test
+    public void notifyCallersOutsideOfWriter() throws Exception {
+        RepositoryWriter writer = this.writer(0, 1, 100);
+        CountDownLatch notified = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // the caller of the first write blocks while handling the result
+        writer.submit(connection -> {}, WritePriority.INTERACTIVE)
+                .doOnSuccess(result -> {
+                    notified.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .subscribe();
+        Assertions.assertTrue(notified.await(10, TimeUnit.SECONDS));
+
+        try {
+            writer.submit(connection -> connection.add(vf.createIRI("http://example.org/a"), RDFS.LABEL, vf.createLiteral("a")), WritePriority.INTERACTIVE).subscribe();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (writer.getPending() > 0 || this.size() == 0) {
+                Assertions.assertTrue(System.nanoTime() < deadline, "Write has not been committed");
+                Thread.sleep(10);
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private long size() {
+        try (RepositoryConnection connection = this.repository.getConnection()) {
+            return connection.size();
+        }
+    }
+
+    private RepositoryWriter writer(long window, int maxGroupSize, int capacity) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Map<WritePriority, Timer> timers = new EnumMap<>(WritePriority.class);
+        for (WritePriority priority : WritePriority.values()) {
+            timers.put(priority, registry.timer("latency", "priority", priority.name()));
+        }
+        return new RepositoryWriter(this.repository, Schedulers.boundedElastic(), window, maxGroupSize, capacity, timers);
+    }
+}
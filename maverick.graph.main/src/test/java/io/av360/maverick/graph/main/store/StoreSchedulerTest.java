@@ -0,0 +1,53 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.rdf4j.config.StoreScheduler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking repository operations run on the threads of the {@link StoreScheduler}, never on the subscribing thread.
+ */
+class StoreSchedulerTest extends StoreTestsBase {
+
+    @Autowired
+    private StoreScheduler storeScheduler;
+
+    @Test
+    public void runOnStoreThreads() {
+        String caller = Thread.currentThread().getName();
+
+        StepVerifier.create(this.entityStore.applyWithConnection(authentication, Authorities.READER, connection -> Thread.currentThread().getName()))
+                .assertNext(thread -> {
+                    Assertions.assertNotEquals(caller, thread);
+                    Assertions.assertTrue(thread.startsWith("store-"), "Unexpected thread " + thread);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void reportActiveTasks() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // subscribing doesn't block the caller, although the operation blocks
+        Disposable running = this.entityStore.applyWithConnection(authentication, Authorities.READER, connection -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }).subscribe();
+
+        try {
+            Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(this.storeScheduler.getActiveTasks() >= 1);
+        } finally {
+            release.countDown();
+            running.dispose();
+        }
+    }
+}
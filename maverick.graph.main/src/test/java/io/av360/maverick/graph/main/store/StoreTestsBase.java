@@ -0,0 +1,29 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.main.config.TestConfigurations;
+import io.av360.maverick.graph.model.security.Authorities;
+import io.av360.maverick.graph.store.EntityStore;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+/**
+ * Runs the tests directly against the entity store of the application context, with system authority.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = TestConfigurations.class)
+@ActiveProfiles("test")
+abstract class StoreTestsBase {
+
+    protected final TestingAuthenticationToken authentication = new TestingAuthenticationToken("test", "test", List.of(Authorities.SYSTEM));
+    protected final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    @Autowired
+    protected EntityStore entityStore;
+}
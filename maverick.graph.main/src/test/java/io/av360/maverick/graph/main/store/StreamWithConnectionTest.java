@@ -0,0 +1,36 @@
+package io.av360.maverick.graph.main.store;
+
+import io.av360.maverick.graph.model.security.Authorities;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Streamed results are consumed on demand, the stream and its connection are closed once the consumer cancels.
+ */
+class StreamWithConnectionTest extends StoreTestsBase {
+
+    @Test
+    public void closeStreamOnCancel() throws InterruptedException {
+        CountDownLatch closed = new CountDownLatch(1);
+        AtomicReference<RepositoryConnection> connection = new AtomicReference<>();
+
+        StepVerifier.create(this.entityStore.streamWithConnection(authentication, Authorities.READER, con -> {
+                    connection.set(con);
+                    return Stream.iterate(0, i -> i + 1).onClose(closed::countDown);
+                }).take(3))
+                .expectNext(0, 1, 2)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        Assertions.assertTrue(closed.await(10, TimeUnit.SECONDS));
+        Assertions.assertFalse(connection.get().isOpen());
+    }
+}
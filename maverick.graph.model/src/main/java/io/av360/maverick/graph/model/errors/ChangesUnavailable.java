@@ -0,0 +1,23 @@
+package io.av360.maverick.graph.model.errors;
+
+public class ChangesUnavailable extends Exception {
+
+
+    private final String repository;
+    private final long available;
+
+    /**
+     * @param available the sequence after which the changes are available
+     */
+    public ChangesUnavailable(String repository, long available) {
+        this.repository = repository;
+        this.available = available;
+    }
+
+    @Override
+    public String getMessage() {
+        if (available < 0) return "Changes are not recorded for repository '" + repository + "'.";
+        return "Changes of repository '" + repository + "' are only available after sequence " + available + ", a full export is required.";
+    }
+
+}
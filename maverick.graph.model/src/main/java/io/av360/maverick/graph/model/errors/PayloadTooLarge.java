@@ -0,0 +1,20 @@
+package io.av360.maverick.graph.model.errors;
+
+public class PayloadTooLarge extends Exception {
+
+
+    private final String limit;
+
+    /**
+     * @param limit the exceeded limit, e.g. "1000 statements"
+     */
+    public PayloadTooLarge(String limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Payload too large: The request exceeds the limit of " + limit + ", split it into multiple requests.";
+    }
+
+}
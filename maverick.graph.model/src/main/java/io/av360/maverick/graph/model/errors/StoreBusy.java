@@ -0,0 +1,17 @@
+package io.av360.maverick.graph.model.errors;
+
+public class StoreBusy extends Exception {
+
+
+    private final String repository;
+
+    public StoreBusy(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Service unavailable: Too many pending writes for repository '" + repository + "', try again later.";
+    }
+
+}
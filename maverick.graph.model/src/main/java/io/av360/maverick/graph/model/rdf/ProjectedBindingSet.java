@@ -0,0 +1,63 @@
+package io.av360.maverick.graph.model.rdf;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.AbstractBindingSet;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Simple BindingSet Wrapper which also keeps the projection of the query (the binding names of the result, including
+ * the names which are unbound in this solution), these are needed to write the correct header in a response.
+ */
+public class ProjectedBindingSet extends AbstractBindingSet {
+
+    private final BindingSet bindingSet;
+    private final List<String> projection;
+
+    private ProjectedBindingSet(BindingSet bindingSet, List<String> projection) {
+        this.bindingSet = bindingSet;
+        this.projection = projection;
+    }
+
+    public static ProjectedBindingSet wrap(BindingSet bindingSet, List<String> projection) {
+        return new ProjectedBindingSet(bindingSet, projection);
+    }
+
+    public List<String> getProjection() {
+        return this.projection;
+    }
+
+    @Override
+    public Iterator<Binding> iterator() {
+        return this.bindingSet.iterator();
+    }
+
+    @Override
+    public Set<String> getBindingNames() {
+        return this.bindingSet.getBindingNames();
+    }
+
+    @Override
+    public Binding getBinding(String bindingName) {
+        return this.bindingSet.getBinding(bindingName);
+    }
+
+    @Override
+    public boolean hasBinding(String bindingName) {
+        return this.bindingSet.hasBinding(bindingName);
+    }
+
+    @Override
+    public Value getValue(String bindingName) {
+        return this.bindingSet.getValue(bindingName);
+    }
+
+    @Override
+    public int size() {
+        return this.bindingSet.size();
+    }
+}
@@ -20,6 +20,15 @@ public interface EntityServices {
      */
     Mono<Entity> readEntity(String entityIdentifier, Authentication authentication);
 
+    /**
+     * Retrieves the current version of an entity, without loading it from the store.
+     *
+     * @param entityIdentifier The unique entity identifier
+     * @param authentication   The current authentication
+     * @return Version as Mono, empty if the version is not known (yet)
+     */
+    Mono<String> getEntityVersion(String entityIdentifier, Authentication authentication);
+
     /**
      * Deletes an entity with all its values from the store.
      *
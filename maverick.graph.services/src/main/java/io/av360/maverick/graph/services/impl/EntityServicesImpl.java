@@ -65,6 +65,11 @@ public class EntityServicesImpl implements EntityServices {
                 .switchIfEmpty(Mono.error(new EntityNotFound(identifier)));
     }
 
+    @Override
+    public Mono<String> getEntityVersion(String identifier, Authentication authentication) {
+        return entityStore.getVersion(LocalIRI.withDefaultNamespace(identifier), authentication);
+    }
+
 
     @Override
     public Mono<Transaction> deleteEntity(IRI identifier, Authentication authentication) {
@@ -19,16 +19,21 @@ import org.eclipse.rdf4j.sparqlbuilder.core.Variable;
 import org.eclipse.rdf4j.sparqlbuilder.core.query.Queries;
 import org.eclipse.rdf4j.sparqlbuilder.core.query.SelectQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 
 @Service
 @Slf4j(topic = "graph.service.query")
 public class QueryServicesImpl implements QueryServices {
 
+    private static final int BATCH_SIZE = 500;
+
     private final EntityStore entityStore;
 
     private final SchemaStore schemaStore;
@@ -88,7 +93,8 @@ public class QueryServicesImpl implements QueryServices {
 
         return this.queryValues(query.getQueryString(), authentication)
                 .map(bindings -> (IRI) bindings.getValue(idVariable.getVarName()))
-                .flatMap(id -> this.entityStore.getEntity(id, authentication));
+                .buffer(BATCH_SIZE)
+                .concatMap(ids -> this.entityStore.getEntities(ids, authentication));
     }
 
     public Flux<Entity> listEntities(Authentication authentication, int limit, int offset) {
@@ -99,7 +105,28 @@ public class QueryServicesImpl implements QueryServices {
 
         return this.queryValues(query.getQueryString(), authentication)
                 .map(bindings -> (IRI) bindings.getValue(idVariable.getVarName()))
-                .flatMap(id -> this.entityStore.getEntity(id, authentication));
+                .buffer(BATCH_SIZE)
+                .concatMap(ids -> this.entityStore.getEntities(ids, authentication));
+    }
+
+    /**
+     * Lists the identifiers of the entities in lexical order, starting after the given identifier (keyset pagination).
+     * Unlike with an offset, the cost of a page doesn't depend on the number of previous pages, and concurrent inserts
+     * don't shift the following pages.
+     *
+     * @param after the last identifier of the previous page, or null for the first page
+     */
+    public Flux<IRI> listEntityIdentifiers(Authentication authentication, int limit, @Nullable IRI after) {
+        return this.entityStore.listEntityIdentifiers(limit, after, authentication);
+    }
+
+    /**
+     * @return the entities in the order of the given identifiers, unknown identifiers are skipped
+     */
+    public Flux<Entity> listEntities(Authentication authentication, List<IRI> ids) {
+        return Flux.fromIterable(ids)
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> this.entityStore.getEntities(batch, authentication));
     }
 
 
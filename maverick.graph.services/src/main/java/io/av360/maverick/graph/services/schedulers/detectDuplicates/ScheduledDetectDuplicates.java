@@ -7,6 +7,7 @@ import io.av360.maverick.graph.model.vocabulary.SDO;
 import io.av360.maverick.graph.services.EntityServices;
 import io.av360.maverick.graph.services.QueryServices;
 import io.av360.maverick.graph.services.ValueServices;
+import io.av360.maverick.graph.store.rdf.WritePriority;
 import io.av360.maverick.graph.store.rdf.models.Transaction;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.model.IRI;
@@ -114,6 +115,7 @@ public class ScheduledDetectDuplicates {
                 .then(this.checkForDuplicates(SDO.IDENTIFIER, adminAuthentication))
                 .then(this.checkForDuplicates(SKOS.PREF_LABEL, adminAuthentication))
                 .then(this.checkForDuplicates(DCTERMS.IDENTIFIER, adminAuthentication))
+                .contextWrite(context -> WritePriority.with(context, WritePriority.BACKGROUND))
                 .publishOn(Schedulers.single()).subscribe();
     }
 
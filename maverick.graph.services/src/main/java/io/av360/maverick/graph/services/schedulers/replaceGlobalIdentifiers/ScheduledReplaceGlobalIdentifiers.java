@@ -8,6 +8,7 @@ import io.av360.maverick.graph.model.vocabulary.Transactions;
 import io.av360.maverick.graph.services.QueryServices;
 import io.av360.maverick.graph.store.EntityStore;
 import io.av360.maverick.graph.store.TransactionsStore;
+import io.av360.maverick.graph.store.rdf.WritePriority;
 import io.av360.maverick.graph.store.rdf.models.Transaction;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.model.Resource;
@@ -77,7 +78,9 @@ public class ScheduledReplaceGlobalIdentifiers {
                         log.debug("(Scheduled) No invalided identifiers found");
                     }
 
-                }).subscribe();
+                })
+                .contextWrite(context -> WritePriority.with(context, WritePriority.BACKGROUND))
+                .subscribe();
     }
 
 
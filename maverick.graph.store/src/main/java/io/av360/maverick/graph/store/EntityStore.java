@@ -8,6 +8,7 @@ import io.av360.maverick.graph.store.rdf.models.Transaction;
 import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.sparqlbuilder.core.query.ModifyQuery;
+import org.springframework.lang.Nullable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import reactor.core.publisher.Flux;
@@ -21,6 +22,31 @@ public interface EntityStore extends Searchable, Resettable, ModelUpdates, Selec
 
     Mono<Entity> getEntity(Resource id, Authentication authentication, GrantedAuthority requiredAuthority);
 
+    /**
+     * Loads multiple entities at once, using one connection for all lookups.
+     *
+     * @param ids the identifiers of the entities
+     * @return the entities in the order of the given identifiers, unknown identifiers are skipped
+     */
+    Flux<Entity> getEntities(Collection<? extends Resource> ids, Authentication authentication, GrantedAuthority requiredAuthority);
+
+
+    /**
+     * Returns the current version of the entity, which changes with every modification of the entity or of its embedded
+     * objects. The version is derived from the stored statements of the entity (see {@link #getEntity}), it is the same
+     * for every instance of the store.
+     *
+     * @param id the identifier of the entity
+     * @return the version, or empty if the entity does not exist
+     */
+    Mono<String> getVersion(Resource id, Authentication authentication, GrantedAuthority requiredAuthority);
+
+    /**
+     * Lists the identifiers of the entities in lexical order, starting after the given identifier (keyset pagination).
+     *
+     * @param after the last identifier of the previous page, or null for the first page
+     */
+    Flux<IRI> listEntityIdentifiers(int limit, @Nullable IRI after, Authentication authentication, GrantedAuthority requiredAuthority);
 
     Mono<Transaction> delete(Collection<Statement> statements, Transaction transaction);
 
@@ -46,6 +72,18 @@ public interface EntityStore extends Searchable, Resettable, ModelUpdates, Selec
 
     }
 
+    default Mono<String> getVersion(Resource id, Authentication authentication) {
+        return this.getVersion(id, authentication, Authorities.READER);
+    }
+
+    default Flux<IRI> listEntityIdentifiers(int limit, @Nullable IRI after, Authentication authentication) {
+        return this.listEntityIdentifiers(limit, after, authentication, Authorities.READER);
+    }
+
+    default Flux<Entity> getEntities(Collection<? extends Resource> ids, Authentication authentication) {
+        return this.getEntities(ids, authentication, Authorities.READER);
+    }
+
     default Mono<List<Statement>> listStatements(IRI object, IRI predicate, Value val, Authentication authentication) {
         return this.listStatements(object, predicate, val, authentication, Authorities.READER);
     }
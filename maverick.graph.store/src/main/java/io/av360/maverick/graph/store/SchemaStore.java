@@ -1,9 +1,17 @@
 package io.av360.maverick.graph.store;
 
+import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.ValueFactory;
 
+import java.util.Set;
+
 public interface SchemaStore {
     String getNamespaceFor(String prefix);
 
+    /**
+     * @return the namespaces known to the repositories
+     */
+    Set<Namespace> getNamespaces();
+
     ValueFactory getValueFactory();
 }
@@ -4,21 +4,28 @@ package io.av360.maverick.graph.store.behaviours;
 import io.av360.maverick.graph.model.security.Authorities;
 import io.av360.maverick.graph.store.RepositoryBuilder;
 import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.store.rdf.ConnectionScope;
 import io.av360.maverick.graph.store.rdf.models.Transaction;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.springframework.lang.Nullable;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.function.ThrowingFunction;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface RepositoryBehaviour {
 
@@ -57,10 +64,69 @@ public interface RepositoryBehaviour {
     }
 
     default RepositoryConnection getConnection(Authentication authentication, RepositoryType repositoryType, GrantedAuthority requiredAuthority) throws IOException {
+        return this.getRepository(authentication, repositoryType, requiredAuthority).getConnection();
+    }
+
+    default Repository getRepository(Authentication authentication, RepositoryType repositoryType, GrantedAuthority requiredAuthority) throws IOException {
         if (!Authorities.satisfies(requiredAuthority, authentication.getAuthorities())) {
             throw new InsufficientAuthenticationException(String.format("Missing authority '%s' for initializing connection to requested repository for authentication", requiredAuthority.getAuthority()));
         }
-        return getBuilder().buildRepository(repositoryType, authentication).getConnection();
+        return getBuilder().buildRepository(repositoryType, authentication);
+    }
+
+    default <T> Mono<T> applyWithConnection(Authentication authentication, GrantedAuthority requiredAuthority, ThrowingFunction<RepositoryConnection, T> function) {
+        return this.applyWithConnection(authentication, getRepositoryType(), requiredAuthority, function);
+    }
+
+    /**
+     * Runs the function with a connection to the requested repository. If a {@link ConnectionScope} is bound to the
+     * reactor context (e.g. for the current request), its connection is reused and remains open. Otherwise, a new connection
+     * is opened and closed once the function has returned.
+     * <p>
+     * The function is executed on the {@link #getScheduler() store scheduler}, since all calls to the repository are blocking.
+     *
+     * @return the result of the function, or empty if it returned null
+     */
+    default <T> Mono<T> applyWithConnection(Authentication authentication, RepositoryType repositoryType, GrantedAuthority requiredAuthority, ThrowingFunction<RepositoryConnection, T> function) {
+        return Mono.deferContextual(context -> {
+            try {
+                Repository repository = this.getRepository(authentication, repositoryType, requiredAuthority);
+                Optional<ConnectionScope> scope = ConnectionScope.from(context);
+
+                T result = scope.isPresent() ? scope.get().apply(repository, function) : ConnectionScope.applyUnscoped(repository, function);
+                return Mono.justOrEmpty(result);
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+        }).subscribeOn(this.getScheduler());
+    }
+
+    /**
+     * Streams the result returned by the function (e.g. the stream of a query result, which closes the result once the
+     * stream is closed). The result is consumed on demand only, and both the result and its
+     * connection remain open until the stream has completed, has failed or has been cancelled.
+     * <p>
+     * The stream holds a dedicated connection for its whole lifetime, a connection bound to the {@link ConnectionScope}
+     * is therefore never used here.
+     */
+    default <T> Flux<T> streamWithConnection(Authentication authentication, GrantedAuthority requiredAuthority, ThrowingFunction<RepositoryConnection, Stream<T>> function) {
+        return Flux.using(
+                        () -> this.getRepository(authentication, getRepositoryType(), requiredAuthority).getConnection(),
+                        connection -> Flux.using(
+                                () -> function.applyWithException(connection),
+                                // the stream is closed once it has completed, has failed or has been cancelled
+                                Flux::fromStream,
+                                Stream::close),
+                        RepositoryConnection::close)
+                .subscribeOn(this.getScheduler())
+                .cancelOn(this.getScheduler());
+    }
+
+    /**
+     * @return the scheduler for running blocking operations on the repository
+     */
+    default Scheduler getScheduler() {
+        return Schedulers.immediate();
     }
 
     RepositoryType getRepositoryType();
@@ -1,10 +1,14 @@
 package io.av360.maverick.graph.store.behaviours;
 
 import io.av360.maverick.graph.store.RepositoryType;
+import io.av360.maverick.graph.store.rdf.models.ImportProgress;
+import org.eclipse.rdf4j.rio.RDFFormat;
 import org.reactivestreams.Publisher;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface Resettable extends RepositoryBehaviour {
@@ -12,5 +16,49 @@ public interface Resettable extends RepositoryBehaviour {
     Mono<Void> reset(Authentication authentication, RepositoryType repositoryType, GrantedAuthority requiredAuthority);
 
 
-    Mono<Void> importStatements(Publisher<DataBuffer> bytesPublisher, String mimetype, Authentication authentication, GrantedAuthority requiredAuthority);
+    default Mono<Void> importStatements(Publisher<DataBuffer> bytesPublisher, String mimetype, Authentication authentication, GrantedAuthority requiredAuthority) {
+        return this.importStatements(bytesPublisher, mimetype, new ImportProgress(0), authentication, requiredAuthority).then();
+    }
+
+    /**
+     * Parses the content while it is received and commits the statements in batches.
+     *
+     * @param progress is updated while the import is running, its offset is the number of statements to skip (to
+     *                 resume a failed import, see {@link ImportProgress#getOffset()})
+     * @return the progress, once the import has completed
+     */
+    Mono<ImportProgress> importStatements(Publisher<DataBuffer> bytesPublisher, String mimetype, ImportProgress progress, Authentication authentication, GrantedAuthority requiredAuthority);
+
+    /**
+     * Loads line-based content (N-Triples or N-Quads), which is parsed in parallel.
+     *
+     * @param progress is updated while the load is running, its offset is the number of statements to skip
+     * @param initial  if true, the statements are committed without isolation (for the initial load of a repository)
+     * @return the progress, once the load has completed
+     */
+    Mono<ImportProgress> bulkImportStatements(Publisher<DataBuffer> bytesPublisher, String mimetype, ImportProgress progress, boolean initial, Authentication authentication, GrantedAuthority requiredAuthority);
+
+    /**
+     * Streams all statements of the repository in the given format (N-Triples, N-Quads or BinaryRDF). The statements
+     * are written into buffers while they are requested, the size of the repository therefore doesn't matter.
+     *
+     * @param gzip if true, the content is compressed
+     * @return the serialized statements
+     */
+    Flux<DataBuffer> exportStatements(RDFFormat format, boolean gzip, DataBufferFactory bufferFactory, Authentication authentication, GrantedAuthority requiredAuthority);
+
+    /**
+     * @return the sequence of the last transaction which has been recorded for the repository (see {@link #exportChanges})
+     */
+    Mono<Long> getChangeSequence(Authentication authentication, GrantedAuthority requiredAuthority);
+
+    /**
+     * Streams the changes of the transactions after 'since' up to 'until' (inclusive) as RDF Patch, each transaction
+     * carries its sequence in the header 'seq'. Fails with {@link io.av360.maverick.graph.model.errors.ChangesUnavailable}
+     * if the changes are not recorded (anymore), a full export is required in this case.
+     *
+     * @param gzip if true, the content is compressed
+     * @return the serialized changes
+     */
+    Flux<DataBuffer> exportChanges(long since, long until, boolean gzip, DataBufferFactory bufferFactory, Authentication authentication, GrantedAuthority requiredAuthority);
 }
@@ -0,0 +1,114 @@
+package io.av360.maverick.graph.store.rdf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.springframework.util.function.ThrowingFunction;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Binds repository connections to the lifecycle of a request. The scope is stored in the Reactor context and hands out
+ * one connection per repository, which is reused by all store operations within the same request. All connections are
+ * closed once the scope is closed (when the request completes, fails or is cancelled).
+ * <p>
+ * Repository connections are not thread-safe, access to a scoped connection is therefore serialized.
+ */
+@Slf4j(topic = "graph.repository.scope")
+public class ConnectionScope implements AutoCloseable {
+
+    private static final Class<ConnectionScope> CONTEXT_KEY = ConnectionScope.class;
+
+    private final Map<Repository, ScopedConnection> connections;
+    private volatile boolean closed;
+
+    public ConnectionScope() {
+        this.connections = new ConcurrentHashMap<>();
+    }
+
+    public static Context with(Context context, ConnectionScope scope) {
+        return context.put(CONTEXT_KEY, scope);
+    }
+
+    public static Optional<ConnectionScope> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    /**
+     * Runs the function with a connection which is opened for this call only.
+     */
+    public static <T> T applyUnscoped(Repository repository, ThrowingFunction<RepositoryConnection, T> function) throws Exception {
+        try (RepositoryConnection connection = repository.getConnection()) {
+            return function.applyWithException(connection);
+        }
+    }
+
+    /**
+     * Runs the function with the connection to the given repository bound to this scope. The connection is opened
+     * with the first call and remains open until the scope is closed.
+     */
+    public <T> T apply(Repository repository, ThrowingFunction<RepositoryConnection, T> function) throws Exception {
+        if (this.closed) {
+            return applyUnscoped(repository, function);
+        }
+
+        ScopedConnection scoped = this.connections.computeIfAbsent(repository, ScopedConnection::new);
+        scoped.lock.lock();
+        try {
+            if (scoped.closed) return applyUnscoped(repository, function);
+            return function.applyWithException(scoped.getConnection());
+        } finally {
+            scoped.lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.connections.values().forEach(ScopedConnection::close);
+        this.connections.clear();
+    }
+
+    private static class ScopedConnection {
+        private final Repository repository;
+        private final ReentrantLock lock;
+        private RepositoryConnection connection;
+        private boolean closed;
+
+        ScopedConnection(Repository repository) {
+            this.repository = repository;
+            this.lock = new ReentrantLock();
+        }
+
+        RepositoryConnection getConnection() {
+            if (this.connection == null) {
+                if (log.isTraceEnabled()) log.trace("Opening request-scoped connection to repository '{}'", repository);
+                this.connection = this.repository.getConnection();
+            }
+            return this.connection;
+        }
+
+        void close() {
+            this.lock.lock();
+            try {
+                this.closed = true;
+                if (this.connection == null) return;
+                if (this.connection.isActive()) {
+                    log.warn("Rolling back unfinished transaction in request-scoped connection to repository '{}'", repository);
+                    this.connection.rollback();
+                }
+                this.connection.close();
+            } catch (Exception e) {
+                log.warn("Failed to close request-scoped connection to repository '{}'", repository, e);
+            } finally {
+                this.connection = null;
+                this.lock.unlock();
+            }
+        }
+    }
+}
@@ -1,21 +1,43 @@
 package io.av360.maverick.graph.store.rdf;
 
+import lombok.extern.slf4j.Slf4j;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.base.RepositoryConnectionWrapper;
 import org.eclipse.rdf4j.repository.base.RepositoryWrapper;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Required to override the toString() Method, to find out in the logs which repository has been used (to differentiate between the different applications)
+ * <p>
+ * Keeps also track of the open connections, a retired repository is shut down as soon as its last connection has been closed.
+ * Callers which still hold a repository after it has been shut down (e.g. because it has been evicted from the registry in
+ * the meantime) or superseded (e.g. by a reset) are connected to its successor, if a resolver has been set.
  */
+@Slf4j(topic = "graph.repository.lifecycle")
 public class LabeledRepository extends RepositoryWrapper {
 
     private final String label;
+    private final AtomicInteger connections;
+    private final List<Runnable> closeListeners;
+    @Nullable
+    private Supplier<LabeledRepository> resolver;
+    private boolean retired;
+    private boolean superseded;
+    private boolean closed;
 
     public LabeledRepository(String label, Repository repository) {
         super(repository);
         this.label = label;
+        this.connections = new AtomicInteger();
+        this.closeListeners = new ArrayList<>();
     }
 
     @Override
@@ -25,6 +47,141 @@ public class LabeledRepository extends RepositoryWrapper {
 
     @Override
     public RepositoryConnection getConnection() throws RepositoryException {
-        return new RepositoryConnectionWrapper(this, super.getConnection());
+        Supplier<LabeledRepository> successor = null;
+        synchronized (this) {
+            // the repository can't be shut down between this check and the registration of the connection
+            if (this.closed || this.superseded) {
+                if (this.resolver == null) throw new RepositoryException("Repository '" + label + "' has been shut down");
+                successor = this.resolver;
+            } else {
+                this.connections.incrementAndGet();
+            }
+        }
+        if (successor != null) {
+            LabeledRepository current = successor.get();
+            if (current == null || current == this) throw new RepositoryException("Repository '" + label + "' has been shut down");
+            log.trace("Repository '{}' has been shut down, connecting to its successor", label);
+            return current.getConnection();
+        }
+
+        try {
+            return new RepositoryConnectionWrapper(this, super.getConnection()) {
+                private final AtomicBoolean released = new AtomicBoolean();
+
+                @Override
+                public void close() throws RepositoryException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) release();
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            this.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the resolver for the successor of this repository, which is connected instead once this repository has been
+     * shut down. The resolver returns null if there is no successor.
+     */
+    public synchronized void setResolver(@Nullable Supplier<LabeledRepository> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * @return the number of currently open connections
+     */
+    public int getOpenConnections() {
+        return this.connections.get();
+    }
+
+    public synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    public synchronized boolean isSuperseded() {
+        return this.superseded;
+    }
+
+    /**
+     * Marks the repository as retired, it is shut down once all open connections have been closed.
+     */
+    public synchronized void retire() {
+        this.retired = true;
+        if (this.connections.get() == 0) this.close();
+        else log.debug("Retiring repository '{}' with {} open connections", label, connections.get());
+    }
+
+    /**
+     * Marks the repository as replaced by its successor. New connections are opened on the successor, the repository is
+     * shut down once the connections which are still open have been closed.
+     */
+    public synchronized void supersede() {
+        this.superseded = true;
+        this.retire();
+    }
+
+    /**
+     * Registers a callback, which is run once the repository has been shut down (or immediately, if it is shut down already).
+     */
+    public void whenClosed(Runnable listener) {
+        synchronized (this) {
+            if (!this.closed) {
+                this.closeListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * Shuts down the repository immediately, regardless of open connections.
+     */
+    @Override
+    public synchronized void shutDown() throws RepositoryException {
+        this.close();
+    }
+
+    /**
+     * Reverts the retirement of a repository, which has not been shut down yet.
+     *
+     * @return false, if the repository has been already shut down and has to be initialized again
+     */
+    public synchronized boolean revive() {
+        if (this.closed || this.superseded) return false;
+        this.retired = false;
+        return true;
+    }
+
+    private void release() {
+        if (this.connections.decrementAndGet() > 0) return;
+
+        synchronized (this) {
+            if (this.retired && this.connections.get() == 0) this.close();
+        }
+    }
+
+    private void close() {
+        if (this.closed) return;
+        this.closed = true;
+
+        log.debug("Shutting down repository '{}'", label);
+        try {
+            super.shutDown();
+        } catch (RepositoryException e) {
+            log.warn("Failed to shut down repository '{}'", label, e);
+        }
+
+        this.closeListeners.forEach(listener -> {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Failed to handle shut down of repository '{}'", label, e);
+            }
+        });
+        this.closeListeners.clear();
     }
 }
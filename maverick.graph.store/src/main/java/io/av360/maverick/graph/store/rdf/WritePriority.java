@@ -0,0 +1,23 @@
+package io.av360.maverick.graph.store.rdf;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * The priority of write operations, which is stored in the Reactor context. Pending interactive writes (the default) are
+ * always committed before pending background writes (e.g. by the scheduled jobs).
+ */
+public enum WritePriority {
+    INTERACTIVE,
+    BACKGROUND;
+
+    private static final Class<WritePriority> CONTEXT_KEY = WritePriority.class;
+
+    public static Context with(Context context, WritePriority priority) {
+        return context.put(CONTEXT_KEY, priority);
+    }
+
+    public static WritePriority from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, INTERACTIVE);
+    }
+}
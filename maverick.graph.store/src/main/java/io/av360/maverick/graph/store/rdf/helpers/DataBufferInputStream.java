@@ -0,0 +1,166 @@
+package io.av360.maverick.graph.store.rdf.helpers;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A blocking input stream over a publisher of data buffers, for consumers (like the RDF parsers) which can only read
+ * from a stream.
+ * <p>
+ * At most 'prefetch' buffers are requested in advance, the next buffer is only requested once a buffer has been read
+ * completely. The content is therefore never joined in memory, and a slow reader slows down the publisher. Must not be
+ * read from a non-blocking thread.
+ * <p>
+ * A publisher which emits more buffers than requested violates the protocol, the subscription is cancelled and the
+ * next read fails.
+ */
+public class DataBufferInputStream extends InputStream implements Subscriber<DataBuffer> {
+
+    private static final DataBuffer END = DefaultDataBufferFactory.sharedInstance.allocateBuffer(0);
+
+    private final BlockingQueue<DataBuffer> queue;
+    private final int prefetch;
+    private volatile Subscription subscription;
+    private volatile Throwable error;
+    private volatile IOException violation;
+    private volatile boolean closed;
+    private DataBuffer current;
+    private boolean completed;
+    private long bytesRead;
+
+    public DataBufferInputStream(Publisher<? extends DataBuffer> publisher, int prefetch) {
+        this.prefetch = prefetch;
+        this.queue = new ArrayBlockingQueue<>(prefetch + 1);
+        publisher.subscribe(this);
+    }
+
+    /**
+     * @return the number of bytes which have been read from this stream so far
+     */
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(this.prefetch);
+    }
+
+    @Override
+    public void onNext(DataBuffer buffer) {
+        if (this.closed || this.violation != null) {
+            DataBufferUtils.release(buffer);
+            return;
+        }
+        if (!this.queue.offer(buffer)) {
+            DataBufferUtils.release(buffer);
+            this.violation = new IOException("Publisher emitted more buffers than requested");
+            this.subscription.cancel();
+            // wakes up a waiting reader, fails if the queue is full (the reader doesn't wait then)
+            this.queue.offer(END);
+            return;
+        }
+        if (this.closed) this.discard();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        this.error = throwable;
+        this.queue.offer(END);
+    }
+
+    @Override
+    public void onComplete() {
+        this.queue.offer(END);
+    }
+
+    @Override
+    public int read() throws IOException {
+        DataBuffer buffer = this.next();
+        if (buffer == null) return -1;
+
+        this.bytesRead++;
+        return buffer.read() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+
+        DataBuffer buffer = this.next();
+        if (buffer == null) return -1;
+
+        int count = Math.min(length, buffer.readableByteCount());
+        buffer.read(bytes, offset, count);
+        this.bytesRead += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return this.current != null ? this.current.readableByteCount() : 0;
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) return;
+        this.closed = true;
+
+        if (!this.completed && this.subscription != null) this.subscription.cancel();
+        if (this.current != null) {
+            DataBufferUtils.release(this.current);
+            this.current = null;
+        }
+        this.discard();
+    }
+
+    private DataBuffer next() throws IOException {
+        while (this.current == null || this.current.readableByteCount() == 0) {
+            if (this.current != null) {
+                DataBufferUtils.release(this.current);
+                this.current = null;
+                this.subscription.request(1);
+            }
+            if (this.violation != null) throw this.violation;
+            if (this.completed) return null;
+            if (this.closed) throw new IOException("Stream has been closed");
+
+            DataBuffer buffer;
+            try {
+                buffer = this.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for data");
+            }
+
+            if (buffer == END) {
+                if (this.violation != null) throw this.violation;
+                this.completed = true;
+                if (this.error instanceof IOException e) throw e;
+                if (this.error instanceof RuntimeException e) throw e;
+                if (this.error != null) throw new IOException(this.error);
+                return null;
+            }
+            this.current = buffer;
+        }
+        return this.current;
+    }
+
+    private void discard() {
+        DataBuffer buffer;
+        while ((buffer = this.queue.poll()) != null) {
+            if (buffer != END) DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package io.av360.maverick.graph.store.rdf.helpers;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.function.ThrowingConsumer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream which collects the written content in data buffers of the given factory (which are pooled by the
+ * server), for producers (like the RDF writers) which can only write into a stream. The writers write directly into the
+ * buffers, without intermediate byte arrays.
+ * <p>
+ * Used in two ways:
+ * <ul>
+ *     <li>By the encoders, which check {@link #isFull()} after each written element and {@link #drain()} the buffer only
+ *     on demand of the response. The threshold for a full buffer starts small (for a fast first response) and is doubled
+ *     with every drained buffer, up to 64 KB for large responses.</li>
+ *     <li>By blocking producers (see {@link #publish}), the buffer is emitted once it has reached the given size and has
+ *     been requested. A slow subscriber therefore blocks the writer, and at most one buffer is held by the stream. Must
+ *     not be written from a non-blocking thread.</li>
+ * </ul>
+ * The stream can be released while it is written by another thread (e.g. when the response is cancelled), the content is
+ * only released once the current write is done, all further writes fail.
+ */
+public class DataBufferOutputStream extends OutputStream {
+    private static final int MIN_CHUNK_SIZE = 8192;
+    private static final int MAX_CHUNK_SIZE = 65536;
+
+    private final DataBufferFactory bufferFactory;
+    private final int maxThreshold;
+    private int threshold;
+    @Nullable
+    private DataBuffer current;
+    private long bytesWritten;
+    private boolean released;
+
+    /* only set for published streams */
+    @Nullable
+    private final FluxSink<DataBuffer> sink;
+    private final Object monitor;
+    private long requested;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a stream which collects the content until it is drained by the caller.
+     */
+    public DataBufferOutputStream(DataBufferFactory bufferFactory) {
+        this(bufferFactory, MIN_CHUNK_SIZE, MAX_CHUNK_SIZE, null);
+    }
+
+    private DataBufferOutputStream(DataBufferFactory bufferFactory, int threshold, int maxThreshold, @Nullable FluxSink<DataBuffer> sink) {
+        this.bufferFactory = bufferFactory;
+        this.threshold = threshold;
+        this.maxThreshold = maxThreshold;
+        this.sink = sink;
+        this.monitor = new Object();
+
+        if (sink != null) {
+            sink.onRequest(n -> {
+                synchronized (this.monitor) {
+                    this.requested = this.requested + n < 0 ? Long.MAX_VALUE : this.requested + n;
+                    this.monitor.notifyAll();
+                }
+            });
+            sink.onCancel(() -> {
+                this.cancelled = true;
+                synchronized (this.monitor) {
+                    this.monitor.notifyAll();
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the writer on the given scheduler once subscribed, the content written by the writer is emitted as data
+     * buffers. The writer fails with an {@link IOException} if the subscriber cancels.
+     *
+     * @param bufferSize the size of the emitted buffers
+     */
+    public static Flux<DataBuffer> publish(ThrowingConsumer<DataBufferOutputStream> writer, DataBufferFactory bufferFactory, int bufferSize, Scheduler scheduler) {
+        return Flux.create(sink -> scheduler.schedule(() -> {
+            DataBufferOutputStream stream = new DataBufferOutputStream(bufferFactory, bufferSize, bufferSize, sink);
+            try {
+                writer.acceptWithException(stream);
+                stream.close();
+                sink.complete();
+            } catch (Exception e) {
+                stream.release();
+                if (!stream.cancelled) sink.error(e);
+            }
+        }));
+    }
+
+    /**
+     * @return the number of bytes which have been written into this stream so far
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        boolean full;
+        synchronized (this) {
+            this.buffer().write((byte) b);
+            this.bytesWritten++;
+            full = this.isFull();
+        }
+        if (this.sink != null && full) this.emit();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        boolean full;
+        synchronized (this) {
+            this.buffer().write(bytes, offset, length);
+            this.bytesWritten += length;
+            full = this.isFull();
+        }
+        if (this.sink != null && full) this.emit();
+    }
+
+    public synchronized boolean isFull() {
+        return this.current != null && this.current.readableByteCount() >= this.threshold;
+    }
+
+    /**
+     * @return the collected output (the buffer is handed over to the caller), or null if nothing has been written (or
+     * the stream has been released)
+     */
+    @Nullable
+    public synchronized DataBuffer drain() {
+        DataBuffer buffer = this.current;
+        this.current = null;
+        this.threshold = Math.min(this.threshold * 2, this.maxThreshold);
+        return buffer;
+    }
+
+    /**
+     * Emits the pending content of a published stream, which is otherwise only emitted once the buffer is full.
+     */
+    @Override
+    public void flush() throws IOException {
+        boolean pending;
+        synchronized (this) {
+            pending = this.current != null && this.current.readableByteCount() > 0;
+        }
+        if (this.sink != null && pending) this.emit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flush();
+        this.release();
+    }
+
+    /**
+     * Releases the content which has not been drained or emitted, the stream can't be written afterwards.
+     */
+    public synchronized void release() {
+        this.released = true;
+        if (this.current != null) {
+            DataBufferUtils.release(this.current);
+            this.current = null;
+        }
+    }
+
+    private DataBuffer buffer() throws IOException {
+        if (this.released) throw new IOException("Stream has been released");
+        // the writers flush their own buffers (8 KB) at once, which should fit without expanding
+        if (this.current == null) this.current = this.bufferFactory.allocateBuffer(this.threshold + MIN_CHUNK_SIZE);
+        return this.current;
+    }
+
+    private void emit() throws IOException {
+        synchronized (this.monitor) {
+            while (this.requested == 0 && !this.cancelled) {
+                try {
+                    this.monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for demand");
+                }
+            }
+            if (this.cancelled) throw new IOException("Subscriber has cancelled");
+            if (this.requested != Long.MAX_VALUE) this.requested--;
+        }
+
+        DataBuffer buffer = this.drain();
+        if (buffer != null) this.sink.next(buffer);
+    }
+}
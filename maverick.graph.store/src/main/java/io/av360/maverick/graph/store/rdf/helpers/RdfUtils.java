@@ -4,61 +4,48 @@ import org.eclipse.rdf4j.rio.*;
 import org.springframework.http.MediaType;
 import org.springframework.util.MimeType;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.*;
 
 public class RdfUtils {
 
+    /* the factories are resolved once per mimetype (without parameters), the registries are filled on startup */
+    private static final Map<String, RDFParserFactory> parserFactories = new HashMap<>();
+    private static final Map<String, RDFWriterFactory> writerFactories = new HashMap<>();
+
+    static {
+        RDFParserRegistry.getInstance().getAll().forEach(factory ->
+                factory.getRDFFormat().getMIMETypes().forEach(mimetype -> parserFactories.putIfAbsent(mimetype.toLowerCase(Locale.ROOT), factory)));
+        RDFWriterRegistry.getInstance().getAll().forEach(factory ->
+                factory.getRDFFormat().getMIMETypes().forEach(mimetype -> writerFactories.putIfAbsent(mimetype.toLowerCase(Locale.ROOT), factory)));
+    }
+
 
     public static Optional<RDFParserFactory> getParserFactory(MimeType mimeType) {
         assert mimeType != null;
-
-        return getAvailableParserFactories()
-                .parallelStream()
-                .filter(rdfParserFactory -> rdfParserFactory.getRDFFormat().hasMIMEType(mimeType.toString()))
-                .findFirst();
+        return Optional.ofNullable(parserFactories.get(key(mimeType)));
     }
 
     public static Optional<RDFWriterFactory> getWriterFactory(MimeType mimeType) {
         assert mimeType != null;
-        return RDFWriterRegistry.getInstance().getAll()
-                .parallelStream()
-                .filter(rdfWriterFactory -> rdfWriterFactory.getRDFFormat().hasMIMEType(mimeType.toString()))
-                .findFirst();
+        return Optional.ofNullable(writerFactories.get(key(mimeType)));
     }
 
-    protected static Collection<RDFParserFactory> getAvailableParserFactories() {
-        return RDFParserRegistry.getInstance().getAll();
+    private static String key(MimeType mimeType) {
+        return (mimeType.getType() + "/" + mimeType.getSubtype()).toLowerCase(Locale.ROOT);
     }
 
-
     public static List<MimeType> getSupportedMimeTypes() {
-        return getAvailableParserFactories().parallelStream()
-                .map(rdfParserFactory -> rdfParserFactory.getRDFFormat().getMIMETypes())
-                .mapMulti((mimetypes, consumer) -> {
-                    for (String mimetype : mimetypes) consumer.accept(mimetype);
-                })
-                .map(mimetypeObj -> MimeType.valueOf(mimetypeObj.toString()))
-                .collect(Collectors.toList());
+        return parserFactories.keySet().stream().sorted().map(MimeType::valueOf).toList();
     }
 
     public static TriplesCollector getTriplesCollector() {
         return new TriplesCollector();
     }
 
-    protected static List<MediaType> getSupportedMediaTypes() {
-        return getAvailableParserFactories().parallelStream()
-                .map(rdfParserFactory -> rdfParserFactory.getRDFFormat().getMIMETypes())
-                .mapMulti((mimetypes, consumer) -> {
-                    for (String mimetype : mimetypes) consumer.accept(mimetype);
-                })
-                .map(mimetypeObj -> MediaType.parseMediaType(mimetypeObj.toString()))
-                .collect(Collectors.toList());
+    public static TriplesCollector getTriplesCollector(long maxStatements) {
+        return new TriplesCollector(maxStatements);
     }
 
-
     public static MediaType getMediaType(RDFFormat format) {
         return MediaType.parseMediaType(format.getDefaultMIMEType());
     }
@@ -7,13 +7,24 @@ import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.repository.util.AbstractRDFInserter;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
 
 public class TriplesCollector extends AbstractRDFInserter {
     private final TripleBag model;
+    private final long maxStatements;
+    private long count;
 
     public TriplesCollector() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxStatements the parser is stopped (with a RDFHandlerException) once more statements are collected
+     */
+    public TriplesCollector(long maxStatements) {
         super(SimpleValueFactory.getInstance());
         this.model = new TripleBag();
+        this.maxStatements = maxStatements;
     }
 
 
@@ -21,6 +32,10 @@ public class TriplesCollector extends AbstractRDFInserter {
         return model;
     }
 
+    public boolean isLimitExceeded() {
+        return this.count > this.maxStatements;
+    }
+
     @Override
     protected void addNamespace(String prefix, String name) throws RDF4JException {
         this.model.getBuilder().setNamespace(prefix, name);
@@ -28,7 +43,10 @@ public class TriplesCollector extends AbstractRDFInserter {
 
     @Override
     protected void addStatement(Resource subj, IRI pred, Value obj, Resource ctxt) throws RDF4JException {
+        if (++this.count > this.maxStatements) {
+            throw new RDFHandlerException("Payload exceeds the limit of " + this.maxStatements + " statements");
+        }
         this.model.getBuilder().add(subj, pred, obj);
 
     }
-}
\ No newline at end of file
+}
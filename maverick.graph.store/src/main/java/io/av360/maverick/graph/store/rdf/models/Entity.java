@@ -24,4 +24,9 @@ public class Entity extends TripleModel {
         statements.stream().parallel().forEach(statement -> this.getBuilder().add(statement.getSubject(), statement.getPredicate(), statement.getObject()));
         return this;
     }
+
+    public Entity withStatements(Iterable<? extends Statement> statements) {
+        statements.forEach(statement -> this.getBuilder().add(statement.getSubject(), statement.getPredicate(), statement.getObject()));
+        return this;
+    }
 }
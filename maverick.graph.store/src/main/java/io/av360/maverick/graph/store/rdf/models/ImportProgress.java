@@ -0,0 +1,115 @@
+package io.av360.maverick.graph.store.rdf.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of an import. Statements are committed in batches, a failed import can therefore be resumed by
+ * uploading the same content again with the offset of the last committed statement.
+ */
+public class ImportProgress {
+
+    private final long skipped;
+    private volatile long started;
+    private volatile boolean cancelled;
+    private final AtomicLong parsed;
+    private final AtomicLong committed;
+    private final AtomicLong commits;
+    private final AtomicLong bytes;
+
+    /**
+     * @param offset the number of statements to skip (which have been committed by a previous attempt)
+     */
+    public ImportProgress(long offset) {
+        this.skipped = Math.max(0, offset);
+        this.started = System.nanoTime();
+        this.parsed = new AtomicLong();
+        this.committed = new AtomicLong();
+        this.commits = new AtomicLong();
+        this.bytes = new AtomicLong();
+    }
+
+    /**
+     * Marks the start of the import (if the progress has been created before the import is running).
+     */
+    public void start() {
+        this.started = System.nanoTime();
+    }
+
+    /**
+     * Requests to stop the import, it fails with the next parsed statement.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * @return true, if the next parsed statement has already been committed by a previous attempt
+     */
+    public boolean skip() {
+        return this.parsed.incrementAndGet() <= this.skipped;
+    }
+
+    /**
+     * @param statements the number of committed statements
+     * @param bytes      the number of bytes of the upload covered by the committed statements (if known)
+     */
+    public void committed(long statements, long bytes) {
+        this.committed.addAndGet(statements);
+        this.commits.incrementAndGet();
+        this.bytes.addAndGet(bytes);
+    }
+
+    /**
+     * @return the number of parsed statements (including the skipped ones)
+     */
+    public long getParsed() {
+        return this.parsed.get();
+    }
+
+    public long getSkipped() {
+        return Math.min(this.skipped, this.parsed.get());
+    }
+
+    /**
+     * @return the number of statements committed by this attempt
+     */
+    public long getCommitted() {
+        return this.committed.get();
+    }
+
+    public long getCommits() {
+        return this.commits.get();
+    }
+
+    /**
+     * @return the number of bytes of the upload which have been committed (only known for bulk loads, the parsers of
+     * other imports read ahead)
+     */
+    public long getBytes() {
+        return this.bytes.get();
+    }
+
+    /**
+     * @return the number of statements committed per second since the import has been started
+     */
+    public long getRate() {
+        long elapsed = System.nanoTime() - this.started;
+        return elapsed > 0 ? (long) (this.committed.get() * 1e9 / elapsed) : 0;
+    }
+
+    /**
+     * @return the offset to resume the import with, if it fails
+     */
+    public long getOffset() {
+        return this.getSkipped() + this.getCommitted();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d statements parsed, %d skipped, %d committed in %d commits (%d statements/s), offset %d", getParsed(), getSkipped(), getCommitted(), getCommits(), getRate(), getOffset());
+    }
+}